@@ -13,57 +13,135 @@ You can incorporate additional details as follows:
 
 import java.util.Random;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 public class task1 {
 
+    // Supplies guesses to a GameSession, so the same game loop serves the console and simulations.
+    // Everything is passed as primitives, so a round allocates nothing per guess.
+public interface GuessProvider {
+    // low..high is the range still consistent with the feedback so far
+    int nextGuess(int low, int high);
+    // comparison is positive if the guess was too high, negative if too low, zero if correct
+    default void onFeedback(int guess, int comparison, int attemptsLeft) {
+    }
+}
+
     // Game class handling the core logic
 public static class GameSession {
+    static final int MIN_NUMBER = 1;
+    static final int MAX_NUMBER = 100;
     private int secretNumber;
     private int maxAttempts;
     private int attemptsUsed;
     private int score;
+    private final boolean adversarial;
+    private final RandomGenerator rng;
     private static final Random random = new Random();
     private static final Scanner scanner = new Scanner(System.in);
 
     public GameSession(int maxAttempts) {
-        this.secretNumber = generateRandomNumber();
+        this(maxAttempts, random, false);
+    }
+
+    // An adversarial session never commits to a number: it answers each guess so that as many numbers
+    // as possible stay consistent, which is the worst case for any guessing strategy
+    public GameSession(int maxAttempts, RandomGenerator rng, boolean adversarial) {
+        this.rng = rng;
+        this.adversarial = adversarial;
         this.maxAttempts = maxAttempts;
+        newRound();
+    }
+
+    // Resets the session for another round, so simulations can reuse one session
+    public void newRound() {
+        this.secretNumber = adversarial ? 0 : generateRandomNumber();
         this.attemptsUsed = 0;
         this.score = 0;
     }
 
     private int generateRandomNumber() {
-        return random.nextInt(100) + 1;
+        return rng.nextInt(MAX_NUMBER - MIN_NUMBER + 1) + MIN_NUMBER;
     }
 
     public void startGame() {
         System.out.println("\n🎯 A number between 1 and 100 has been chosen. Can you guess it?");
         System.out.println("💡 You have " + maxAttempts + " attempts. Best of luck!");
 
+        if (play(new ConsoleGuessProvider(scanner)) > 0) {
+            System.out.println("🎉 Correct! The number was " + secretNumber);
+            System.out.println("🏆 You scored " + score + " points!");
+        } else {
+            System.out.println("❌ Out of attempts! The correct number was: " + secretNumber);
+        }
+    }
+
+    // Plays one round with the given provider and returns the score, 0 if the number was not found
+    public int play(GuessProvider provider) {
+        int low = MIN_NUMBER;
+        int high = MAX_NUMBER;
         while (attemptsUsed < maxAttempts) {
-            int userGuess = getUserGuess();
+            int guess = provider.nextGuess(low, high);
             attemptsUsed++;
-
-            if (userGuess > secretNumber) {
-                System.out.println("📈 Too high! Attempts left: " + (maxAttempts - attemptsUsed));
-            } else if (userGuess < secretNumber) {
-                System.out.println("📉 Too low! Attempts left: " + (maxAttempts - attemptsUsed));
+            int comparison = compare(guess, low, high);
+            provider.onFeedback(guess, comparison, maxAttempts - attemptsUsed);
+            if (comparison == 0) {
+                return calculateScore();
+            }
+            if (comparison > 0) {
+                high = Math.min(high, guess - 1);
             } else {
-                System.out.println("🎉 Correct! The number was " + secretNumber);
-                calculateScore();
-                return;
+                low = Math.max(low, guess + 1);
             }
         }
+        if (adversarial) {
+            secretNumber = low; // any number still consistent will do
+        }
+        return 0;
+    }
 
-        System.out.println("❌ Out of attempts! The correct number was: " + secretNumber);
+    private int compare(int guess, int low, int high) {
+        if (!adversarial) {
+            return Integer.compare(guess, secretNumber);
+        }
+        if (guess == low && guess == high) {
+            secretNumber = guess;
+            return 0;
+        }
+        if (guess < low || guess > high) {
+            return guess < low ? -1 : 1;
+        }
+        return high - guess >= guess - low ? -1 : 1; // keep the larger side alive
     }
 
-    private int getUserGuess() {
+    private int calculateScore() {
+        this.score = (maxAttempts - attemptsUsed + 1) * 10;
+        return score;
+    }
+    public int getScore() {
+        return score;
+    }
+    public int getAttemptsUsed() {
+        return attemptsUsed;
+    }
+}
+
+    // Reads guesses from the console and prints the feedback
+public static class ConsoleGuessProvider implements GuessProvider {
+    private final Scanner scanner;
+
+    public ConsoleGuessProvider(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    @Override
+    public int nextGuess(int low, int high) {
         int guess;
         while (true) {
             System.out.print("➡️ Enter your guess: ");
             if (scanner.hasNextInt()) {
                 guess = scanner.nextInt();
-                if (guess >= 1 && guess <= 100) {
+                if (guess >= GameSession.MIN_NUMBER && guess <= GameSession.MAX_NUMBER) {
                     return guess;
                 }
             }
@@ -71,12 +149,121 @@ public static class GameSession {
             scanner.nextLine();
         }
     }
-    private void calculateScore() {
-        this.score = (maxAttempts - attemptsUsed + 1) * 10;
-        System.out.println("🏆 You scored " + score + " points!");
+
+    @Override
+    public void onFeedback(int guess, int comparison, int attemptsLeft) {
+        if (comparison > 0) {
+            System.out.println("📈 Too high! Attempts left: " + attemptsLeft);
+        } else if (comparison < 0) {
+            System.out.println("📉 Too low! Attempts left: " + attemptsLeft);
+        }
     }
-    public int getScore() {
-        return score;
+}
+
+    // Simulated players
+public static class BinarySearchGuesser implements GuessProvider {
+    @Override
+    public int nextGuess(int low, int high) {
+        return (low + high) >>> 1;
+    }
+}
+public static class RandomGuesser implements GuessProvider {
+    private final RandomGenerator rng;
+
+    public RandomGuesser(RandomGenerator rng) {
+        this.rng = rng;
+    }
+
+    // Uniform over the numbers still possible
+    @Override
+    public int nextGuess(int low, int high) {
+        return low + rng.nextInt(high - low + 1);
+    }
+}
+public static class LinearGuesser implements GuessProvider {
+    // Counts up from the lowest possible number: consistent with the feedback, but as slow as it gets
+    @Override
+    public int nextGuess(int low, int high) {
+        return low;
+    }
+}
+
+    // Plays many rounds of one strategy on every core and collects the distribution of calculateScore
+    // results. Each thread reuses one session and one provider, so the hot loop allocates nothing.
+public static class Tournament {
+    private final String strategy;
+    private final int maxAttempts;
+    private final boolean adversarial;
+
+    public Tournament(String strategy, int maxAttempts, boolean adversarial) {
+        this.strategy = strategy;
+        this.maxAttempts = maxAttempts;
+        this.adversarial = adversarial;
+    }
+
+    private GuessProvider newProvider(RandomGenerator rng) {
+        return switch (strategy) {
+            case "binary" -> new BinarySearchGuesser();
+            case "random" -> new RandomGuesser(rng);
+            case "linear" -> new LinearGuesser();
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        };
+    }
+
+    // Returns the number of rounds per score, indexed by score / 10 (index 0 is a lost round)
+    public long[] run(long rounds, int threads) throws InterruptedException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        long[][] histograms = new long[threads][];
+        Thread[] workers = new Thread[threads];
+        SplittableRandom seeds = new SplittableRandom(42);
+        for (int t = 0; t < threads; t++) {
+            long share = rounds / threads + (t < rounds % threads ? 1 : 0);
+            int slot = t;
+            SplittableRandom rng = seeds.split();
+            workers[t] = new Thread(() -> {
+                // Each worker counts into its own array and publishes it once, so no cache lines are shared
+                long[] histogram = new long[maxAttempts + 1];
+                GameSession session = new GameSession(maxAttempts, rng, adversarial);
+                GuessProvider provider = newProvider(rng);
+                for (long round = 0; round < share; round++) {
+                    session.newRound();
+                    histogram[session.play(provider) / 10]++;
+                }
+                histograms[slot] = histogram;
+            });
+            workers[t].start();
+        }
+        long[] total = new long[maxAttempts + 1];
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            for (int i = 0; i < total.length; i++) {
+                total[i] += histograms[t][i];
+            }
+        }
+        return total;
+    }
+
+    public void report(long rounds, int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        long[] histogram = run(rounds, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long won = rounds - histogram[0];
+        long points = 0;
+        for (int i = 1; i < histogram.length; i++) {
+            points += histogram[i] * i * 10;
+        }
+        System.out.printf("%n🤖 %s vs %s host, %d attempts: %,d rounds in %.2f s (%,.0f rounds/s)%n", strategy,
+                adversarial ? "adversarial" : "fair", maxAttempts, rounds, seconds, rounds / seconds);
+        System.out.printf("   won %.2f%%, mean score %.2f%n", 100.0 * won / rounds, (double) points / rounds);
+        for (int i = histogram.length - 1; i >= 0; i--) {
+            if (histogram[i] == 0) {
+                continue;
+            }
+            double share = (double) histogram[i] / rounds;
+            System.out.printf("   %3d pts %6.2f%% %s%n", i * 10, 100 * share, "█".repeat((int) Math.round(share * 50)));
+        }
     }
 }
 private static boolean askToPlayAgain(Scanner scanner) {
@@ -84,7 +271,18 @@ private static boolean askToPlayAgain(Scanner scanner) {
     String response = scanner.next().trim().toLowerCase();
     return response.equals("yes");
 }
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0 && args[0].equals("simulate")) {
+            long rounds = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+            int maxAttempts = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            for (boolean adversarial : new boolean[] {false, true}) {
+                for (String strategy : new String[] {"binary", "random", "linear"}) {
+                    new Tournament(strategy, maxAttempts, adversarial).report(rounds, threads);
+                }
+            }
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         int totalScore = 0;
         boolean playAgain = true;
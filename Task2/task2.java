@@ -1,13 +1,34 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 // Interface for input handling
 interface IMarkProvider {
     LinkedHashMap<String, Integer> getMarks();
+    boolean hasMoreMarks();
 }
 
 // Interface for calculation logic
@@ -15,6 +36,9 @@ interface ICalculator {
     int calculateTotal(LinkedHashMap<String, Integer> marks);
     double calculateAverage(int total, int subjects);
     boolean hasFailingSubject(LinkedHashMap<String, Integer> marks);
+    default double calculatePercentage(LinkedHashMap<String, Integer> marks, int total) {
+        return calculateAverage(total, marks.size());
+    }
     String determineGrade(double percentage, boolean hasFailingSubject);
     String getGradeComment(String grade);
     String getGradeEmoji(String grade);
@@ -28,13 +52,20 @@ interface IResultDisplay {
 // Implementation for user input with subject selection
 class ConsoleMarkProvider implements IMarkProvider {
     private final Scanner scanner = new Scanner(System.in);
+    private boolean consumed;
     private static final String[] SUBJECTS = {
         "English", "Additional Language", "C Programming", "Digital Logic", "Data Mining",
         "Discrete Mathematics", "ODE", "Calculus", "Computer Organization", "Networking"
     };
 
+    @Override
+    public boolean hasMoreMarks() {
+        return !consumed; // one student per console session
+    }
+
     @Override
     public LinkedHashMap<String, Integer> getMarks() {
+        consumed = true;
         LinkedHashMap<String, Integer> marks = new LinkedHashMap<>();
         int subjects = getValidInteger("Enter number of subjects: ", 1, SUBJECTS.length);
 
@@ -79,14 +110,463 @@ class ConsoleMarkProvider implements IMarkProvider {
     }
 }
 
+// Streams marks from a CSV or NDJSON file through memory-mapped windows, one student per call.
+// CSV: a header row of subject names, then one row of marks per student.
+// NDJSON: one object per line, e.g. {"English": 78, "Calculus": 91}.
+// Fields are parsed straight from the mapped bytes and the returned map is reused between calls,
+// so memory stays flat however large the file is. Malformed rows are counted and skipped.
+class FileMarkProvider implements IMarkProvider, AutoCloseable {
+    private static final int WINDOW_SIZE = 64 << 20;
+    private static final int MAX_SUBJECTS = 64;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean ndjson;
+    private final LinkedHashMap<String, Integer> marks = new LinkedHashMap<>();
+    private final List<String> subjects = new ArrayList<>();
+    private final List<byte[]> subjectBytes = new ArrayList<>();
+    private final int[] row = new int[MAX_SUBJECTS];
+    private final int[] rowSubjects = new int[MAX_SUBJECTS];
+    private final boolean[] seen = new boolean[MAX_SUBJECTS];
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private boolean ready;
+    private long rowsRead;
+    private long malformedRows;
+
+    FileMarkProvider(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        String name = file.getFileName().toString().toLowerCase();
+        this.ndjson = name.endsWith(".ndjson") || name.endsWith(".jsonl");
+        try {
+            map(0);
+            if (!ndjson) {
+                readHeader();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasMoreMarks() {
+        try {
+            while (!ready && nextLine()) {
+                if (lineStart == lineEnd) {
+                    continue; // blank line
+                }
+                if (ndjson ? parseObject() : parseRow()) {
+                    ready = true;
+                    rowsRead++;
+                } else {
+                    malformedRows++;
+                }
+            }
+            return ready;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public LinkedHashMap<String, Integer> getMarks() {
+        if (!hasMoreMarks()) {
+            throw new NoSuchElementException("No more students in the mark sheet");
+        }
+        ready = false;
+        return marks;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+        position = 0;
+    }
+
+    // Finds the next line in the current window, sliding the window forward when a line crosses its end
+    private boolean nextLine() throws IOException {
+        boolean oversized = false;
+        while (true) {
+            int limit = window.limit();
+            for (int i = position; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    if (oversized) {
+                        malformedRows++;
+                        position = i + 1;
+                        oversized = false;
+                        continue;
+                    }
+                    lineStart = position;
+                    lineEnd = i > position && window.get(i - 1) == '\r' ? i - 1 : i;
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if (windowStart + limit >= fileSize) {
+                if (position < limit && !oversized) {
+                    lineStart = position;
+                    lineEnd = limit;
+                    position = limit;
+                    return true;
+                }
+                if (oversized) {
+                    malformedRows++;
+                }
+                return false;
+            }
+            if (position == 0 || oversized) {
+                oversized = true; // longer than a whole window; skip it
+                map(windowStart + limit);
+            } else {
+                map(windowStart + position);
+            }
+        }
+    }
+
+    // Rows are parsed into fixed MAX_SUBJECTS-wide buffers, so a wider header is rejected up front
+    private void readHeader() throws IOException {
+        if (!nextLine()) {
+            return;
+        }
+        int columns = 1;
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (window.get(i) == ',') {
+                columns++;
+            }
+        }
+        if (columns > MAX_SUBJECTS) {
+            throw new IOException("Mark sheet has " + columns + " columns; at most " + MAX_SUBJECTS + " subjects are supported");
+        }
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || window.get(i) == ',') {
+                byte[] name = new byte[i - fieldStart];
+                window.get(fieldStart, name);
+                addSubject(new String(name, StandardCharsets.UTF_8).trim());
+                fieldStart = i + 1;
+            }
+        }
+    }
+
+    private int addSubject(String subject) {
+        subjects.add(subject);
+        subjectBytes.add(subject.getBytes(StandardCharsets.UTF_8));
+        return subjects.size() - 1;
+    }
+
+    private boolean parseRow() {
+        int field = 0;
+        int i = lineStart;
+        while (i <= lineEnd) {
+            if (field == subjects.size()) {
+                return false;
+            }
+            int value = -1;
+            while (i < lineEnd && window.get(i) == ' ') i++;
+            while (i < lineEnd && window.get(i) >= '0' && window.get(i) <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (window.get(i++) - '0');
+                if (value > 100) return false;
+            }
+            while (i < lineEnd && window.get(i) == ' ') i++;
+            if (value < 0 || (i < lineEnd && window.get(i) != ',')) {
+                return false;
+            }
+            row[field++] = value;
+            i++;
+        }
+        if (field != subjects.size()) {
+            return false;
+        }
+        // Same keys every row, so put() only replaces values and allocates no new entries
+        for (int f = 0; f < field; f++) {
+            marks.put(subjects.get(f), row[f]);
+        }
+        return true;
+    }
+
+    private boolean parseObject() {
+        int i = skipSpaces(lineStart);
+        if (i == lineEnd || window.get(i) != '{') {
+            return false;
+        }
+        Arrays.fill(seen, false);
+        int count = 0;
+        i = skipSpaces(i + 1);
+        while (i < lineEnd && window.get(i) != '}') {
+            if (window.get(i) != '"') return false;
+            int keyStart = ++i;
+            while (i < lineEnd && window.get(i) != '"') {
+                if (window.get(i) == '\\') return false;
+                i++;
+            }
+            if (i == lineEnd) return false;
+            int subject = findSubject(keyStart, i);
+            if (subject < 0 || seen[subject]) return false;
+            i = skipSpaces(i + 1);
+            if (i == lineEnd || window.get(i) != ':') return false;
+            i = skipSpaces(i + 1);
+            int value = -1;
+            while (i < lineEnd && window.get(i) >= '0' && window.get(i) <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (window.get(i++) - '0');
+                if (value > 100) return false;
+            }
+            if (value < 0) return false;
+            seen[subject] = true;
+            rowSubjects[count] = subject;
+            row[count++] = value;
+            i = skipSpaces(i);
+            if (i < lineEnd && window.get(i) == ',') {
+                i = skipSpaces(i + 1);
+            } else if (i == lineEnd || window.get(i) != '}') {
+                return false;
+            }
+        }
+        if (i == lineEnd || count == 0) {
+            return false;
+        }
+        marks.clear();
+        for (int k = 0; k < count; k++) {
+            marks.put(subjects.get(rowSubjects[k]), row[k]);
+        }
+        return true;
+    }
+
+    private int skipSpaces(int i) {
+        while (i < lineEnd && (window.get(i) == ' ' || window.get(i) == '\t')) i++;
+        return i;
+    }
+
+    // Looks the key bytes up among known subjects; a String is only created the first time a name appears
+    private int findSubject(int from, int to) {
+        int length = to - from;
+        for (int s = 0; s < subjectBytes.size(); s++) {
+            byte[] name = subjectBytes.get(s);
+            if (name.length == length && matches(name, from)) {
+                return s;
+            }
+        }
+        if (subjects.size() == MAX_SUBJECTS) {
+            return -1;
+        }
+        byte[] name = new byte[length];
+        window.get(from, name);
+        return addSubject(new String(name, StandardCharsets.UTF_8));
+    }
+
+    private boolean matches(byte[] name, int from) {
+        for (int k = 0; k < name.length; k++) {
+            if (window.get(from + k) != name[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
+
+// Grade table: label, comment and emoji live together
+enum Grade {
+    O_PLUS("O+", "Phenomenal Performance!", "🏆"),
+    O("O", "Excellent Work!", "🌟"),
+    A_PLUS("A+", "Very Good, Keep it Up!", "🎯"),
+    A("A", "Nice Effort, Improve!", "👍"),
+    B("B", "Need More Hard Work!", "✅"),
+    F("F", "Failed due to low marks in one or more subjects.", "❌");
+
+    static final Grade[] VALUES = values();
+
+    final String label;
+    final String comment;
+    final String emoji;
+
+    Grade(String label, String comment, String emoji) {
+        this.label = label;
+        this.comment = comment;
+        this.emoji = emoji;
+    }
+
+    static Grade of(String label) {
+        return switch (label) {
+            case "O+" -> O_PLUS;
+            case "O" -> O;
+            case "A+" -> A_PLUS;
+            case "A" -> A;
+            case "B" -> B;
+            default -> F;
+        };
+    }
+}
+
+// Grading scheme: grade thresholds, per-subject pass marks and weights, and optional relative grading.
+// Thresholds are compiled into a table indexed by percentage * SCALE, so grading a student is a single
+// array load whatever the scheme; thresholds are therefore honoured to 1 / SCALE of a percent.
+//
+// Policy files are java.util.Properties:
+//   grade.O+=85  grade.O=75  grade.A+=65  grade.A=55  grade.B=40   (minimum percentage per grade)
+//   pass=40      pass.<Subject>=35                                 (default and per-subject pass marks)
+//   weight.<Subject>=2                                             (default weight is 1)
+//   mode=relative  - grade.* values are class percentiles instead; see relativeTo()
+class GradingPolicy {
+    static final int SCALE = 10;
+    private static final Grade[] THRESHOLD_GRADES = {Grade.O_PLUS, Grade.O, Grade.A_PLUS, Grade.A, Grade.B};
+
+    private final double[] thresholds; // minimum percentage (or percentile) per THRESHOLD_GRADES entry
+    private final int defaultPassMark;
+    private final Map<String, Integer> passMarks;
+    private final Map<String, Double> weights;
+    private final boolean relative;
+    private final byte[] table = new byte[100 * SCALE + 1];
+
+    private GradingPolicy(double[] thresholds, int defaultPassMark, Map<String, Integer> passMarks,
+                          Map<String, Double> weights, boolean relative) {
+        this.thresholds = thresholds;
+        this.defaultPassMark = defaultPassMark;
+        this.passMarks = passMarks;
+        this.weights = weights;
+        this.relative = relative;
+        compile(relative ? new double[thresholds.length] : thresholds);
+    }
+
+    static GradingPolicy defaults() {
+        double[] thresholds = {GradeCalculator.GRADE_O_PLUS, GradeCalculator.GRADE_O, GradeCalculator.GRADE_A_PLUS,
+                GradeCalculator.GRADE_A, GradeCalculator.GRADE_B};
+        return new GradingPolicy(thresholds, GradeCalculator.PASS_MARK, Map.of(), Map.of(), false);
+    }
+
+    static GradingPolicy load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        GradingPolicy defaults = defaults();
+        double[] thresholds = defaults.thresholds.clone();
+        for (int g = 0; g < THRESHOLD_GRADES.length; g++) {
+            String value = properties.getProperty("grade." + THRESHOLD_GRADES[g].label);
+            if (value != null) {
+                thresholds[g] = Double.parseDouble(value.trim());
+            }
+        }
+        for (int g = 0; g < thresholds.length; g++) {
+            requirePercentage("grade." + THRESHOLD_GRADES[g].label, thresholds[g]);
+        }
+        for (int g = 1; g < thresholds.length; g++) {
+            if (thresholds[g] > thresholds[g - 1]) {
+                throw new IllegalArgumentException("Grade thresholds must not increase from O+ down to B");
+            }
+        }
+        Map<String, Integer> passMarks = new HashMap<>();
+        Map<String, Double> weights = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith("pass.")) {
+                passMarks.put(key.substring(5), (int) requirePercentage(key, Integer.parseInt(value)));
+            } else if (key.startsWith("weight.")) {
+                double weight = Double.parseDouble(value);
+                if (!(weight >= 0) || Double.isInfinite(weight)) {
+                    throw new IllegalArgumentException(key + " must be a finite weight of 0 or more, got " + value);
+                }
+                weights.put(key.substring(7), weight);
+            }
+        }
+        int defaultPassMark = (int) requirePercentage("pass",
+                Integer.parseInt(properties.getProperty("pass", String.valueOf(GradeCalculator.PASS_MARK)).trim()));
+        boolean relative = properties.getProperty("mode", "absolute").trim().equalsIgnoreCase("relative");
+        return new GradingPolicy(thresholds, defaultPassMark, passMarks, weights, relative);
+    }
+
+    // Thresholds, percentiles and pass marks all live on the 0..100 scale
+    private static double requirePercentage(String key, double value) {
+        if (!(value >= 0 && value <= 100)) {
+            throw new IllegalArgumentException(key + " must be between 0 and 100, got " + value);
+        }
+        return value;
+    }
+
+    boolean isRelative() {
+        return relative;
+    }
+
+    // Resolves a relative policy against a class: each grade's percentile becomes the percentage
+    // that the class reached at that percentile. Absolute policies are returned unchanged.
+    GradingPolicy relativeTo(GradeStatistics statistics) {
+        if (!relative) {
+            return this;
+        }
+        double[] absolute = new double[thresholds.length];
+        for (int g = 0; g < thresholds.length; g++) {
+            absolute[g] = statistics.getPercentagePercentile(thresholds[g]);
+        }
+        return new GradingPolicy(absolute, defaultPassMark, passMarks, weights, false);
+    }
+
+    private void compile(double[] minimums) {
+        for (int index = 0; index < table.length; index++) {
+            double percentage = (double) index / SCALE;
+            Grade grade = Grade.F;
+            for (int g = 0; g < minimums.length; g++) {
+                if (percentage >= minimums[g]) {
+                    grade = THRESHOLD_GRADES[g];
+                    break;
+                }
+            }
+            table[index] = (byte) grade.ordinal();
+        }
+    }
+
+    Grade grade(double percentage, boolean hasFailingSubject) {
+        if (hasFailingSubject) {
+            return Grade.F;
+        }
+        int index = (int) (percentage * SCALE);
+        return Grade.VALUES[table[index < 0 ? 0 : Math.min(index, table.length - 1)]];
+    }
+
+    int passMark(String subject) {
+        return subject == null ? defaultPassMark : passMarks.getOrDefault(subject, defaultPassMark);
+    }
+
+    double weight(String subject) {
+        return subject == null ? 1.0 : weights.getOrDefault(subject, 1.0);
+    }
+}
+
 // Implementation for grade calculations
 class GradeCalculator implements ICalculator {
-    // Grade thresholds
-    private static final int GRADE_O_PLUS = 85;
-    private static final int GRADE_O = 75;
-    private static final int GRADE_A_PLUS = 65;
-    private static final int GRADE_A = 55;
-    private static final int GRADE_B = 40;
+    // Grade thresholds of the default scheme
+    static final int GRADE_O_PLUS = 85;
+    static final int GRADE_O = 75;
+    static final int GRADE_A_PLUS = 65;
+    static final int GRADE_A = 55;
+    static final int GRADE_B = 40;
+    static final int PASS_MARK = 40;
+
+    protected final GradingPolicy policy;
+
+    GradeCalculator() {
+        this(GradingPolicy.defaults());
+    }
+
+    GradeCalculator(GradingPolicy policy) {
+        this.policy = policy;
+    }
 
     @Override
     public int calculateTotal(LinkedHashMap<String, Integer> marks) {
@@ -98,44 +578,373 @@ class GradeCalculator implements ICalculator {
         return (subjects > 0) ? (double) total / subjects : 0;
     }
 
+    // Weighted average of the marks under the policy's subject weights
+    @Override
+    public double calculatePercentage(LinkedHashMap<String, Integer> marks, int total) {
+        double weightedSum = 0;
+        double weightTotal = 0;
+        for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+            double weight = policy.weight(entry.getKey());
+            weightedSum += weight * entry.getValue();
+            weightTotal += weight;
+        }
+        return weightTotal > 0 ? weightedSum / weightTotal : 0;
+    }
+
     @Override
     public boolean hasFailingSubject(LinkedHashMap<String, Integer> marks) {
-        return marks.values().stream().anyMatch(mark -> mark < 40);
+        for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+            if (entry.getValue() < policy.passMark(entry.getKey())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public String determineGrade(double percentage, boolean hasFailingSubject) {
-        if (hasFailingSubject) return "F";
-        if (percentage >= GRADE_O_PLUS) return "O+";
-        if (percentage >= GRADE_O) return "O";
-        if (percentage >= GRADE_A_PLUS) return "A+";
-        if (percentage >= GRADE_A) return "A";
-        if (percentage >= GRADE_B) return "B";
-        return "F";
+        return policy.grade(percentage, hasFailingSubject).label;
     }
 
     @Override
     public String getGradeComment(String grade) {
-        return switch (grade) {
-            case "O+" -> "Phenomenal Performance!";
-            case "O" -> "Excellent Work!";
-            case "A+" -> "Very Good, Keep it Up!";
-            case "A" -> "Nice Effort, Improve!";
-            case "B" -> "Need More Hard Work!";
-            default -> "Failed due to low marks in one or more subjects.";
-        };
+        return Grade.of(grade).comment;
     }
 
     @Override
     public String getGradeEmoji(String grade) {
-        return switch (grade) {
-            case "O+" -> "🏆";
-            case "O" -> "🌟";
-            case "A+" -> "🎯";
-            case "A" -> "👍";
-            case "B" -> "✅";
-            default -> "❌";
-        };
+        return Grade.of(grade).emoji;
+    }
+}
+
+// Per-student results of a bulk grading run, stored as parallel primitive arrays
+class BulkGradeResult {
+    final int[] totals;
+    final double[] averages;
+    final boolean[] failing;
+    final byte[] grades; // Grade ordinal
+
+    BulkGradeResult(int students) {
+        totals = new int[students];
+        averages = new double[students];
+        failing = new boolean[students];
+        grades = new byte[students];
+    }
+
+    Grade gradeOf(int student) {
+        return Grade.VALUES[grades[student]];
+    }
+}
+
+// Bulk variant of GradeCalculator: marks arrive column-wise (one short[] per subject, one slot per student)
+// and every result is written into preallocated arrays, so grading allocates nothing per student.
+class BulkGradeCalculator extends GradeCalculator {
+    private static final int CHUNK = 8192; // students per fork-join leaf; keeps the working set in cache
+    private final ForkJoinPool pool;
+
+    BulkGradeCalculator() {
+        this(GradingPolicy.defaults(), ForkJoinPool.commonPool());
+    }
+
+    BulkGradeCalculator(GradingPolicy policy, ForkJoinPool pool) {
+        super(policy);
+        this.pool = pool;
+    }
+
+    public BulkGradeResult gradeAll(short[][] marksBySubject) {
+        int students = marksBySubject.length == 0 ? 0 : marksBySubject[0].length;
+        BulkGradeResult result = new BulkGradeResult(students);
+        gradeAll(null, marksBySubject, result);
+        return result;
+    }
+
+    public void gradeAll(short[][] marksBySubject, BulkGradeResult result) {
+        gradeAll(null, marksBySubject, result);
+    }
+
+    // Subject names select per-subject pass marks and weights from the policy; null uses the defaults
+    public void gradeAll(String[] subjects, short[][] marksBySubject, BulkGradeResult result) {
+        int[] passMarks = new int[marksBySubject.length];
+        double[] weights = new double[marksBySubject.length];
+        for (int s = 0; s < marksBySubject.length; s++) {
+            String subject = subjects == null ? null : subjects[s];
+            passMarks[s] = policy.passMark(subject);
+            weights[s] = policy.weight(subject);
+        }
+        pool.invoke(new GradeTask(marksBySubject, passMarks, weights, result, 0, result.totals.length));
+    }
+
+    // Builds class statistics for already graded results, one partial per fork-join leaf, merged on the way up
+    public GradeStatistics summarize(String[] subjects, short[][] marksBySubject, BulkGradeResult result) {
+        return pool.invoke(new StatisticsTask(subjects, marksBySubject, result, 0, result.totals.length));
+    }
+
+    // Grades students [from, to) in one pass over each subject column
+    void gradeRange(short[][] marksBySubject, int[] passMarks, double[] weights, BulkGradeResult result, int from, int to) {
+        int[] totals = result.totals;
+        double[] averages = result.averages;
+        boolean[] failing = result.failing;
+        for (int i = from; i < to; i++) {
+            totals[i] = 0;
+            averages[i] = 0;
+            failing[i] = false;
+        }
+        double weightTotal = 0;
+        for (int s = 0; s < marksBySubject.length; s++) {
+            short[] column = marksBySubject[s];
+            int passMark = passMarks[s];
+            double weight = weights[s];
+            weightTotal += weight;
+            for (int i = from; i < to; i++) {
+                int mark = column[i];
+                totals[i] += mark;
+                averages[i] += weight * mark;
+                failing[i] |= mark < passMark;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            double average = weightTotal > 0 ? averages[i] / weightTotal : 0;
+            averages[i] = average;
+            result.grades[i] = (byte) policy.grade(average, failing[i]).ordinal();
+        }
+    }
+
+    private class GradeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final short[][] marksBySubject;
+        private final int[] passMarks;
+        private final double[] weights;
+        private final BulkGradeResult result;
+        private final int from;
+        private final int to;
+
+        GradeTask(short[][] marksBySubject, int[] passMarks, double[] weights, BulkGradeResult result, int from, int to) {
+            this.marksBySubject = marksBySubject;
+            this.passMarks = passMarks;
+            this.weights = weights;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                gradeRange(marksBySubject, passMarks, weights, result, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GradeTask(marksBySubject, passMarks, weights, result, from, mid),
+                    new GradeTask(marksBySubject, passMarks, weights, result, mid, to));
+        }
+    }
+
+    private static class StatisticsTask extends RecursiveTask<GradeStatistics> {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] subjects;
+        private final short[][] marksBySubject;
+        private final BulkGradeResult result;
+        private final int from;
+        private final int to;
+
+        StatisticsTask(String[] subjects, short[][] marksBySubject, BulkGradeResult result, int from, int to) {
+            this.subjects = subjects;
+            this.marksBySubject = marksBySubject;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GradeStatistics compute() {
+            if (to - from <= CHUNK) {
+                GradeStatistics partial = new GradeStatistics();
+                partial.record(subjects, marksBySubject, result, from, to);
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            StatisticsTask left = new StatisticsTask(subjects, marksBySubject, result, from, mid);
+            left.fork();
+            GradeStatistics merged = new StatisticsTask(subjects, marksBySubject, result, mid, to).compute();
+            merged.merge(left.join());
+            return merged;
+        }
+    }
+}
+
+// Streaming class statistics. Marks are integers from 0 to 100, so every result is folded into
+// 101-bucket histograms per subject and overall (average rounded to the nearest percent); mean, median,
+// percentile rank and grade distribution then cost at most one pass over 101 counters.
+// Not thread-safe: give each thread its own instance and merge() the partials.
+class GradeStatistics {
+    static final int BUCKETS = 101;
+
+    private final Map<String, long[]> subjectHistograms = new LinkedHashMap<>();
+    private final long[] overallHistogram = new long[BUCKETS];
+    private final long[] gradeCounts = new long[Grade.VALUES.length];
+    private double averageSum;
+    private long students;
+
+    public void record(LinkedHashMap<String, Integer> marks, double average, Grade grade) {
+        for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+            histogram(entry.getKey())[checkMark(entry.getKey(), entry.getValue())]++;
+        }
+        recordOverall(average, grade);
+    }
+
+    // Folds bulk results for students [from, to) into this instance
+    public void record(String[] subjects, short[][] marksBySubject, BulkGradeResult result, int from, int to) {
+        for (int s = 0; s < subjects.length; s++) {
+            long[] histogram = histogram(subjects[s]);
+            short[] column = marksBySubject[s];
+            for (int i = from; i < to; i++) {
+                histogram[checkMark(subjects[s], column[i])]++;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            recordOverall(result.averages[i], result.gradeOf(i));
+        }
+    }
+
+    private static int checkMark(String subject, int mark) {
+        if (mark < 0 || mark >= BUCKETS) {
+            throw new IllegalArgumentException("Mark " + mark + " for " + subject + " is outside 0..100");
+        }
+        return mark;
+    }
+
+    private void recordOverall(double average, Grade grade) {
+        overallHistogram[(int) Math.round(average)]++;
+        gradeCounts[grade.ordinal()]++;
+        averageSum += average;
+        students++;
+    }
+
+    public void merge(GradeStatistics other) {
+        other.subjectHistograms.forEach((subject, counts) -> add(histogram(subject), counts));
+        add(overallHistogram, other.overallHistogram);
+        add(gradeCounts, other.gradeCounts);
+        averageSum += other.averageSum;
+        students += other.students;
+    }
+
+    private static void add(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+    }
+
+    private long[] histogram(String subject) {
+        return subjectHistograms.computeIfAbsent(subject, name -> new long[BUCKETS]);
+    }
+
+    public long getStudentCount() {
+        return students;
+    }
+
+    public double getMeanPercentage() {
+        return students == 0 ? 0 : averageSum / students;
+    }
+
+    public int getMedianPercentage() {
+        return percentile(overallHistogram, 50);
+    }
+
+    public int getPercentagePercentile(double percentile) {
+        return percentile(overallHistogram, percentile);
+    }
+
+    // Share of students whose (rounded) percentage is strictly below the given one, in percent
+    public double getPercentileRank(int percentage) {
+        return rank(overallHistogram, percentage);
+    }
+
+    public long getGradeCount(Grade grade) {
+        return gradeCounts[grade.ordinal()];
+    }
+
+    public double getMean(String subject) {
+        long[] histogram = subjectHistograms.get(subject);
+        if (histogram == null) {
+            return 0;
+        }
+        long count = 0;
+        long sum = 0;
+        for (int mark = 0; mark < BUCKETS; mark++) {
+            count += histogram[mark];
+            sum += mark * histogram[mark];
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public int getMedian(String subject) {
+        return getPercentile(subject, 50);
+    }
+
+    public int getPercentile(String subject, double percentile) {
+        long[] histogram = subjectHistograms.get(subject);
+        return histogram == null ? 0 : percentile(histogram, percentile);
+    }
+
+    public double getPercentileRank(String subject, int mark) {
+        long[] histogram = subjectHistograms.get(subject);
+        return histogram == null ? 0 : rank(histogram, mark);
+    }
+
+    public Iterable<String> getSubjects() {
+        return subjectHistograms.keySet();
+    }
+
+    // Smallest value with at least the given percent of observations at or below it (nearest-rank)
+    private static int percentile(long[] histogram, double percentile) {
+        long count = 0;
+        for (long c : histogram) {
+            count += c;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int value = 0; value < BUCKETS; value++) {
+            seen += histogram[value];
+            if (seen >= target) {
+                return value;
+            }
+        }
+        return BUCKETS - 1;
+    }
+
+    private static double rank(long[] histogram, int value) {
+        long below = 0;
+        long count = 0;
+        for (int v = 0; v < BUCKETS; v++) {
+            count += histogram[v];
+            if (v < value) {
+                below += histogram[v];
+            }
+        }
+        return count == 0 ? 0 : 100.0 * below / count;
+    }
+
+    public void print() {
+        System.out.println("\n===============================");
+        System.out.println("        CLASS STATISTICS       ");
+        System.out.println("===============================");
+        System.out.printf("Students: %d%n", students);
+        System.out.printf("Mean Percentage: %.2f%%%n", getMeanPercentage());
+        System.out.printf("Median Percentage: %d%%%n", getMedianPercentage());
+        System.out.println("Subject-wise Mean / Median:");
+        for (String subject : subjectHistograms.keySet()) {
+            System.out.printf(" - %s: %.2f / %d%n", subject, getMean(subject), getMedian(subject));
+        }
+        System.out.println("Grade Distribution:");
+        for (Grade grade : Grade.VALUES) {
+            System.out.printf(" - %s %s: %d%n", grade.label, grade.emoji, getGradeCount(grade));
+        }
+        System.out.println("===============================");
     }
 }
 
@@ -157,34 +966,310 @@ class ConsoleResultDisplay implements IResultDisplay {
     }
 }
 
+// Renders reports into a reusable byte buffer and writes it out in large chunks.
+// Fixed text is pre-encoded once and any other text is encoded the first time it appears, so rendering a
+// report neither formats nor allocates. The average is rounded HALF_UP from its shortest decimal form,
+// exactly as printf's %.2f does, using only double and long arithmetic.
+class BufferedReportDisplay implements IResultDisplay, AutoCloseable {
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEADER = ("\n===============================" + System.lineSeparator()
+            + "       STUDENT GRADE REPORT     " + System.lineSeparator()
+            + "===============================" + System.lineSeparator()
+            + "Subject-wise Marks:" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUBJECT_PREFIX = " - ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUBJECT_SEPARATOR = ": ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DIVIDER = ("-------------------------------" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TOTAL = "Total Marks: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] AVERAGE = "Average Percentage: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PERCENT = "%".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GRADE = "Grade: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SPACE = " ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMMENT = "Comment: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOOTER = ("===============================" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_REPORT_SIZE = 4096;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final Map<String, byte[]> encodedText = new HashMap<>(); // subject names, labels, emojis, comments
+    private int count;
+
+    BufferedReportDisplay(OutputStream out) {
+        this(out, 1 << 20);
+    }
+
+    BufferedReportDisplay(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MAX_REPORT_SIZE)];
+        for (Grade grade : Grade.VALUES) {
+            text(grade.label);
+            text(grade.emoji);
+            text(grade.comment);
+        }
+    }
+
+    @Override
+    public void showResults(int total, double average, String grade, String comment, String emoji, LinkedHashMap<String, Integer> marks) {
+        if (buffer.length - count < MAX_REPORT_SIZE) {
+            flush();
+        }
+        put(HEADER);
+        for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+            put(SUBJECT_PREFIX);
+            put(text(entry.getKey()));
+            put(SUBJECT_SEPARATOR);
+            putInt(entry.getValue());
+            put(NEWLINE);
+        }
+        put(DIVIDER);
+        put(TOTAL);
+        putInt(total);
+        put(NEWLINE);
+        put(AVERAGE);
+        putHundredths(roundHundredths(average));
+        put(PERCENT);
+        put(NEWLINE);
+        put(GRADE);
+        put(text(grade));
+        put(SPACE);
+        put(text(emoji));
+        put(NEWLINE);
+        put(COMMENT);
+        put(text(comment));
+        put(NEWLINE);
+        put(FOOTER);
+    }
+
+    private byte[] text(String value) {
+        return encodedText.computeIfAbsent(value, BufferedReportDisplay::encode);
+    }
+
+    private static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // value rounded HALF_UP to hundredths, as printf's %.2f rounds it. floor(value * 100) is within one of the
+    // answer k; the result is k + 1 exactly when value is at least the double nearest to (k + 0.5) / 100,
+    // which is the same as its shortest decimal form being at least that midpoint
+    static long roundHundredths(double value) {
+        if (value < 0) {
+            return -roundHundredths(-value);
+        }
+        long k = (long) Math.floor(value * 100);
+        return value >= (k + 0.5) / 100 ? k + 1 : k;
+    }
+
+    private void put(byte[] bytes) {
+        if (bytes.length > buffer.length - count) {
+            flush(); // only reachable with very long subject names
+            if (bytes.length > buffer.length) {
+                write(bytes, bytes.length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void putInt(int value) {
+        if (buffer.length - count < 16) {
+            flush();
+        }
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private void putHundredths(long hundredths) {
+        putInt((int) (hundredths / 100));
+        if (buffer.length - count < 3) {
+            flush();
+        }
+        buffer[count++] = '.';
+        buffer[count++] = (byte) ('0' + hundredths % 100 / 10);
+        buffer[count++] = (byte) ('0' + hundredths % 10);
+    }
+
+    public void flush() {
+        write(buffer, count);
+        count = 0;
+    }
+
+    private void write(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
+
 // Controller Class (Handles Main Logic)
 class GradeController {
     private final IMarkProvider markProvider;
     private final ICalculator calculator;
     private final IResultDisplay resultDisplay;
+    private final GradeStatistics statistics;
 
     public GradeController(IMarkProvider markProvider, ICalculator calculator, IResultDisplay resultDisplay) {
+        this(markProvider, calculator, resultDisplay, null);
+    }
+
+    // Every processed result is also folded into the given statistics
+    public GradeController(IMarkProvider markProvider, ICalculator calculator, IResultDisplay resultDisplay, GradeStatistics statistics) {
         this.markProvider = markProvider;
         this.calculator = calculator;
         this.resultDisplay = resultDisplay;
+        this.statistics = statistics;
     }
 
     public void processGrades() {
         LinkedHashMap<String, Integer> marks = markProvider.getMarks();
         int total = calculator.calculateTotal(marks);
-        double average = calculator.calculateAverage(total, marks.size());
+        double average = calculator.calculatePercentage(marks, total);
         boolean hasFailingSubject = calculator.hasFailingSubject(marks);
         String grade = calculator.determineGrade(average, hasFailingSubject);
         String comment = calculator.getGradeComment(grade);
         String emoji = calculator.getGradeEmoji(grade);
 
         resultDisplay.showResults(total, average, grade, comment, emoji, marks);
+        if (statistics != null) {
+            statistics.record(marks, average, Grade.of(grade));
+        }
+    }
+
+    // Processes students one at a time until the provider runs out
+    public void processAll() {
+        while (markProvider.hasMoreMarks()) {
+            processGrades();
+        }
+    }
+}
+
+// Compares the per-map GradeCalculator path with BulkGradeCalculator on random marks
+class GradingBenchmark {
+    static void run(int students, int subjects) {
+        Random random = new Random(42);
+        short[][] columns = new short[subjects][students];
+        for (short[] column : columns) {
+            for (int i = 0; i < students; i++) {
+                column[i] = (short) random.nextInt(101);
+            }
+        }
+
+        GradeCalculator calculator = new GradeCalculator();
+        String[] mapGrades = new String[students];
+        gradeWithMaps(calculator, columns, mapGrades); // warm-up
+        long start = System.nanoTime();
+        gradeWithMaps(calculator, columns, mapGrades);
+        long mapNanos = System.nanoTime() - start;
+
+        BulkGradeCalculator bulk = new BulkGradeCalculator();
+        BulkGradeResult result = new BulkGradeResult(students);
+        bulk.gradeAll(columns, result); // warm-up
+        start = System.nanoTime();
+        bulk.gradeAll(columns, result);
+        long bulkNanos = System.nanoTime() - start;
+        int mismatches = 0;
+        for (int i = 0; i < students; i++) {
+            if (!mapGrades[i].equals(result.gradeOf(i).label)) {
+                mismatches++;
+            }
+        }
+
+        System.out.printf("Per-map path: %.0f students/s%n", students / (mapNanos / 1e9));
+        System.out.printf("Bulk path:    %.0f students/s%n", students / (bulkNanos / 1e9));
+        System.out.println(mismatches == 0 ? "Results match." : "Results differ for " + mismatches + " students!");
+
+        String[] subjectNames = new String[subjects];
+        for (int s = 0; s < subjects; s++) {
+            subjectNames[s] = "Subject " + s;
+        }
+        start = System.nanoTime();
+        GradeStatistics statistics = bulk.summarize(subjectNames, columns, result);
+        long statisticsNanos = System.nanoTime() - start;
+        System.out.printf("Statistics:   %.0f students/s (median %d%%, %d failed)%n", students / (statisticsNanos / 1e9),
+                statistics.getMedianPercentage(), statistics.getGradeCount(Grade.F));
+    }
+
+    // Grades every student through the per-map GradeCalculator API, one LinkedHashMap per student
+    private static void gradeWithMaps(GradeCalculator calculator, short[][] columns, String[] grades) {
+        for (int i = 0; i < grades.length; i++) {
+            LinkedHashMap<String, Integer> marks = new LinkedHashMap<>();
+            for (int s = 0; s < columns.length; s++) {
+                marks.put("Subject " + s, (int) columns[s][i]);
+            }
+            int total = calculator.calculateTotal(marks);
+            grades[i] = calculator.determineGrade(calculator.calculateAverage(total, marks.size()), calculator.hasFailingSubject(marks));
+        }
+    }
+
+    // Renders the same reports through printf and through BufferedReportDisplay into a discarding stream
+    static void runReports(int reports) {
+        LinkedHashMap<String, Integer> marks = new LinkedHashMap<>();
+        marks.put("English", 78);
+        marks.put("Calculus", 91);
+        marks.put("Networking", 66);
+        PrintStream console = System.out;
+        try {
+            System.setOut(new PrintStream(new BufferedOutputStream(OutputStream.nullOutputStream(), 1 << 16), false, StandardCharsets.UTF_8));
+            ConsoleResultDisplay printf = new ConsoleResultDisplay();
+            long start = System.nanoTime();
+            for (int i = 0; i < reports; i++) {
+                printf.showResults(235, 78.33, "O", Grade.O.comment, Grade.O.emoji, marks);
+            }
+            System.out.flush();
+            long printfNanos = System.nanoTime() - start;
+
+            BufferedReportDisplay buffered = new BufferedReportDisplay(OutputStream.nullOutputStream());
+            start = System.nanoTime();
+            for (int i = 0; i < reports; i++) {
+                buffered.showResults(235, 78.33, "O", Grade.O.comment, Grade.O.emoji, marks);
+            }
+            buffered.flush();
+            long bufferedNanos = System.nanoTime() - start;
+
+            console.printf("printf reports:   %.0f reports/s%n", reports / (printfNanos / 1e9));
+            console.printf("buffered reports: %.0f reports/s%n", reports / (bufferedNanos / 1e9));
+        } finally {
+            System.setOut(console);
+        }
     }
 }
 
 // Main application class (Minimal Load)
 public class task2 {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bench")) {
+            int students = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+            GradingBenchmark.run(students, 10);
+            GradingBenchmark.runReports(students);
+            return;
+        }
+        if (args.length > 0) {
+            try {
+                GradingPolicy policy = args.length > 1 ? GradingPolicy.load(Path.of(args[1])) : GradingPolicy.defaults();
+                processFile(Path.of(args[0]), policy);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Error loading grading policy: " + e.getMessage());
+            }
+            return;
+        }
         try {
             GradeController controller = new GradeController(new ConsoleMarkProvider(), new GradeCalculator(), new ConsoleResultDisplay());
             controller.processGrades();
@@ -192,4 +1277,30 @@ public class task2 {
             System.out.println("Unexpected error occurred: " + e.getMessage());
         }
     }
+
+    private static void processFile(Path file, GradingPolicy policy) {
+        if (policy.isRelative()) {
+            // Relative grading needs the class distribution first, so make a silent pass over the file
+            try (FileMarkProvider provider = new FileMarkProvider(file)) {
+                GradeStatistics classStatistics = new GradeStatistics();
+                IResultDisplay discard = (total, average, grade, comment, emoji, marks) -> { };
+                new GradeController(provider, new GradeCalculator(policy), discard, classStatistics).processAll();
+                policy = policy.relativeTo(classStatistics);
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("Error reading mark sheet: " + e.getMessage());
+                return;
+            }
+        }
+        try (FileMarkProvider provider = new FileMarkProvider(file)) {
+            GradeStatistics statistics = new GradeStatistics();
+            try (BufferedReportDisplay display = new BufferedReportDisplay(System.out)) {
+                new GradeController(provider, new GradeCalculator(policy), display, statistics).processAll();
+            }
+            statistics.print();
+            System.out.printf("%nProcessed %d students, skipped %d malformed rows.%n",
+                    provider.getRowsRead(), provider.getMalformedRows());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error reading mark sheet: " + e.getMessage());
+        }
+    }
 }
@@ -1,20 +1,74 @@
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
 
 public class task3 {
-    // Represents a bank account with transactions
+    // Represents a bank account with transactions.
+    // The balance is held in paise. A change is validated and journaled under the account's transfer lock,
+    // but the lock is released before waiting for the fsync, so one group commit can carry many changes to
+    // the same account. Debits are taken from the balance up front and handed back if the write fails;
+    // credits are held aside and only reach the balance once durable, so nothing can be spent early.
     static class BankAccount {
-        private double balance;
+        private final AtomicLong balance;
+        private long heldCredits; // guarded by transferLock: journaled credits still waiting for their fsync
+        private final String cardNumber;
+        private final TransactionJournal journal;
+        private final ReentrantLock transferLock = new ReentrantLock();
 
         public BankAccount(double initialBalance) {
-            this.balance = initialBalance;
+            this(null, toPaise(initialBalance), null);
+        }
+
+        // Journaled account: every successful change is durable before the call returns
+        BankAccount(String cardNumber, long initialPaise, TransactionJournal journal) {
+            this.balance = new AtomicLong(initialPaise);
+            this.cardNumber = cardNumber;
+            this.journal = journal;
         }
 
         public void deposit(double amount) {
-            if (amount > 0) {
-                balance += amount;
+            if (tryDeposit(toPaise(amount))) {
                 System.out.println("✅ ₹" + amount + " deposited successfully.");
             } else {
                 System.out.println("❌ Invalid deposit amount.");
@@ -22,50 +76,888 @@ public class task3 {
         }
 
         public void withdraw(double amount) {
-            if (amount > 0 && amount <= balance) {
-                balance -= amount;
+            if (tryWithdraw(toPaise(amount))) {
                 System.out.println("✅ ₹" + amount + " withdrawn successfully.");
             } else {
                 System.out.println("❌ Insufficient funds or invalid amount.");
             }
         }
 
+        // Adds paise to the balance once durable; false for an invalid amount, an overflow or a failed write
+        public boolean tryDeposit(long paise) {
+            CompletableFuture<Void> write;
+            transferLock.lock();
+            try {
+                if (!canCredit(paise)) {
+                    return false;
+                }
+                holdCredit(paise);
+                write = log(TransactionJournal.DEPOSIT, paise);
+            } finally {
+                transferLock.unlock();
+            }
+            boolean durable = TransactionJournal.await(write);
+            settleCredit(paise, durable);
+            return durable;
+        }
+
+        // Removes paise from the balance unless that would overdraw it or the write fails
+        public boolean tryWithdraw(long paise) {
+            CompletableFuture<Void> write;
+            transferLock.lock();
+            try {
+                if (!canDebit(paise)) {
+                    return false;
+                }
+                takeDebit(paise);
+                write = log(TransactionJournal.WITHDRAW, paise);
+            } finally {
+                transferLock.unlock();
+            }
+            if (TransactionJournal.await(write)) {
+                return true;
+            }
+            refundDebit(paise);
+            return false;
+        }
+
+        private CompletableFuture<Void> log(byte op, long paise) {
+            return journal != null ? journal.append(op, cardNumber, paise) : CompletableFuture.completedFuture(null);
+        }
+
+        // The helpers below are shared with multi-account operations. The check and the take or hold run
+        // under the transfer lock, together with the journal append, so the journal order matches the order
+        // in which changes were validated.
+
+        boolean canCredit(long paise) {
+            return paise > 0 && Long.MAX_VALUE - balance.get() - heldCredits >= paise;
+        }
+
+        boolean canDebit(long paise) {
+            return paise > 0 && paise <= balance.get();
+        }
+
+        void holdCredit(long paise) {
+            heldCredits += paise;
+        }
+
+        void takeDebit(long paise) {
+            balance.addAndGet(-paise);
+        }
+
+        // Releases a held credit once its write has finished, into the balance if it became durable
+        void settleCredit(long paise, boolean durable) {
+            transferLock.lock();
+            try {
+                heldCredits -= paise;
+                if (durable) {
+                    balance.addAndGet(paise);
+                }
+            } finally {
+                transferLock.unlock();
+            }
+        }
+
+        // Gives back a debit whose write failed
+        void refundDebit(long paise) {
+            balance.addAndGet(paise);
+        }
+
+        // Credits journaled but not yet durable; the caller holds the transfer lock
+        long getHeldCreditsPaise() {
+            return heldCredits;
+        }
+
+        // Guards validation and journaling. Single deposits and withdrawals take their own account's lock and
+        // multi-account operations take all of theirs in card-number order. Reads of one balance stay lock-free.
+        ReentrantLock transferLock() {
+            return transferLock;
+        }
+
         public double getBalance() {
-            return balance;
+            return balance.get() / 100.0;
+        }
+
+        public long getBalancePaise() {
+            return balance.get();
+        }
+
+        // Largest single amount accepted, ₹1,000,000,000 in paise
+        static final long MAX_AMOUNT_PAISE = 100_000_000_000L;
+
+        // Converts a rupee amount to paise; NaN, infinities and amounts beyond MAX_AMOUNT_PAISE map to 0
+        // so they are rejected as invalid
+        static long toPaise(double amount) {
+            if (!Double.isFinite(amount) || Math.abs(amount * 100) > MAX_AMOUNT_PAISE) {
+                return 0;
+            }
+            return Math.round(amount * 100);
+        }
+    }
+
+    // Append-only write-ahead journal of balance changes.
+    // A single writer thread group-commits whatever has queued up, so many transactions share one fsync;
+    // callers append while holding their account locks and wait for durability after releasing them, and
+    // no credit is spendable before its record is durable. A batch that cannot be written
+    // is cut off the end of the file again, so a torn record never sits in front of later good ones.
+    // Every SNAPSHOT_INTERVAL records the journaled balances are written to a compact snapshot and the
+    // journal is truncated, which bounds how much history a restart has to replay.
+    static class TransactionJournal implements AutoCloseable {
+        static final byte OPEN = 1;
+        static final byte DEPOSIT = 2;
+        static final byte WITHDRAW = 3;
+        static final byte BATCH = 4; // several changes committed as one record, all or nothing
+
+        private static final int MAGIC = 0x41544d4a; // "ATMJ"
+        private static final int HEADER_SIZE = 12;   // magic + generation
+        private static final int MAX_RECORD_SIZE = 1 + 1 + 255 + 8 + 4;
+        private static final int MAX_BATCH = 1024;
+        private static final int SNAPSHOT_INTERVAL = 10_000;
+
+        private final Path journalPath;
+        private final Path snapshotPath;
+        private final FileChannel channel;
+        private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+        private final ByteBuffer batchBuffer = ByteBuffer.allocateDirect(MAX_BATCH * MAX_RECORD_SIZE);
+        private final CRC32 crc = new CRC32();
+        private final Thread writer;
+
+        // Balances as of the last durable record; owned by the writer thread after recovery
+        private final Map<String, Long> journaled = new HashMap<>();
+        private long generation;
+        private int recordsSinceSnapshot;
+        private boolean closed;                // guarded by pending
+        private volatile IOException failure;  // set once the file is in an unknown state; no further appends
+
+        private final AtomicLong syncCount = new AtomicLong();
+        private final AtomicLong syncNanos = new AtomicLong();
+        private final AtomicLong recordCount = new AtomicLong();
+        private long recoveryNanos;
+        private int replayedRecords;
+
+        // One balance change
+        record Change(byte op, String cardNumber, long paise) {
+        }
+
+        private static final class Entry {
+            final List<Change> changes;
+            final CompletableFuture<Void> done = new CompletableFuture<>();
+
+            Entry(List<Change> changes) {
+                this.changes = changes;
+            }
+
+            // A single change keeps the plain record layout; several become one BATCH record
+            int encodedSize() {
+                int size = changes.size() == 1 ? 4 : 1 + 2 + 4;
+                for (Change change : changes) {
+                    size += 1 + 1 + change.cardNumber().length() + 8;
+                }
+                return size;
+            }
+        }
+
+        private static final Entry SHUTDOWN = new Entry(List.of());
+
+        TransactionJournal(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            this.journalPath = directory.resolve("journal.bin");
+            this.snapshotPath = directory.resolve("snapshot.bin");
+            this.channel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+            this.writer = new Thread(this::writeLoop, "atm-journal-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        // Balances recovered from the snapshot plus the journal tail
+        Map<String, Long> recoveredBalances() {
+            return new HashMap<>(journaled);
+        }
+
+        // Queues a record; the future completes once it has been fsynced
+        CompletableFuture<Void> append(byte op, String cardNumber, long paise) {
+            return appendAll(List.of(new Change(op, cardNumber, paise)));
+        }
+
+        // Queues several changes as one record, so recovery sees either all of them or none
+        CompletableFuture<Void> appendAll(List<Change> changes) {
+            if (changes.size() > 0xFFFF) {
+                throw new IllegalArgumentException("Too many changes in one journal record: " + changes.size());
+            }
+            Entry entry = new Entry(changes);
+            synchronized (pending) {
+                if (closed) {
+                    entry.done.completeExceptionally(new IllegalStateException("Journal is closed"));
+                } else if (failure != null) {
+                    entry.done.completeExceptionally(new UncheckedIOException(failure));
+                } else {
+                    pending.add(entry);
+                }
+            }
+            return entry.done;
+        }
+
+        // Waits for a queued record; false if it could not be made durable
+        static boolean await(CompletableFuture<Void> write) {
+            try {
+                write.join();
+                return true;
+            } catch (CompletionException e) {
+                return false;
+            }
+        }
+
+        long getRecoveryNanos() {
+            return recoveryNanos;
+        }
+
+        int getReplayedRecords() {
+            return replayedRecords;
+        }
+
+        long getSyncCount() {
+            return syncCount.get();
+        }
+
+        double getAverageSyncNanos() {
+            long syncs = syncCount.get();
+            return syncs == 0 ? 0 : (double) syncNanos.get() / syncs;
+        }
+
+        double getRecordsPerSync() {
+            long syncs = syncCount.get();
+            return syncs == 0 ? 0 : (double) recordCount.get() / syncs;
+        }
+
+        private void recover() throws IOException {
+            long start = System.nanoTime();
+            long snapshotGeneration = readSnapshot();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            boolean validHeader = channel.size() >= HEADER_SIZE
+                    && channel.read(header, 0) == HEADER_SIZE
+                    && header.getInt(0) == MAGIC;
+
+            if (validHeader && header.getLong(4) == snapshotGeneration) {
+                generation = snapshotGeneration;
+                long validEnd = replay();
+                channel.truncate(validEnd); // drop a torn tail left by a crash mid-write
+                channel.position(validEnd);
+            } else {
+                // Missing journal, or one already folded into a newer snapshot
+                generation = snapshotGeneration;
+                resetJournal();
+            }
+            recoveryNanos = System.nanoTime() - start;
+        }
+
+        private long readSnapshot() throws IOException {
+            if (!Files.exists(snapshotPath)) {
+                return 0;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            if (buffer.remaining() < 16) {
+                throw new IOException("Corrupt snapshot: " + snapshotPath);
+            }
+            crc.reset();
+            crc.update(buffer.array(), 0, buffer.limit() - 4);
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+                throw new IOException("Snapshot checksum mismatch: " + snapshotPath);
+            }
+            long snapshotGeneration = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] card = new byte[buffer.get() & 0xff];
+                buffer.get(card);
+                journaled.put(new String(card, StandardCharsets.US_ASCII), buffer.getLong());
+            }
+            return snapshotGeneration;
+        }
+
+        // Applies every intact record after the header and returns the offset just past the last one
+        private long replay() throws IOException {
+            ByteBuffer data = ByteBuffer.allocate((int) (channel.size() - HEADER_SIZE));
+            channel.read(data, HEADER_SIZE);
+            data.flip();
+            List<Change> changes = new ArrayList<>();
+            while (data.remaining() >= 3) {
+                int start = data.position();
+                changes.clear();
+                int count = 1;
+                if (data.get(start) == BATCH) {
+                    data.get();
+                    count = data.getShort() & 0xffff;
+                }
+                if (!readChanges(data, count, changes) || data.remaining() < 4) {
+                    data.position(start);
+                    break;
+                }
+                crc.reset();
+                crc.update(data.array(), start, data.position() - start);
+                if ((int) crc.getValue() != data.getInt()) {
+                    data.position(start);
+                    break;
+                }
+                for (Change change : changes) {
+                    apply(change);
+                }
+                replayedRecords++;
+            }
+            return HEADER_SIZE + data.position();
+        }
+
+        // Reads count plain changes; false if the data ends first
+        private static boolean readChanges(ByteBuffer data, int count, List<Change> changes) {
+            for (int i = 0; i < count; i++) {
+                if (data.remaining() < 2) {
+                    return false;
+                }
+                byte op = data.get();
+                int cardLength = data.get() & 0xff;
+                if (data.remaining() < cardLength + 8) {
+                    return false;
+                }
+                byte[] card = new byte[cardLength];
+                data.get(card);
+                changes.add(new Change(op, new String(card, StandardCharsets.US_ASCII), data.getLong()));
+            }
+            return true;
+        }
+
+        private void apply(Change change) {
+            switch (change.op()) {
+                case OPEN -> journaled.put(change.cardNumber(), change.paise());
+                case DEPOSIT -> journaled.merge(change.cardNumber(), change.paise(), Long::sum);
+                case WITHDRAW -> journaled.merge(change.cardNumber(), -change.paise(), Long::sum);
+                default -> throw new IllegalStateException("Unknown journal op " + change.op());
+            }
+        }
+
+        private void writeLoop() {
+            List<Entry> batch = new ArrayList<>(MAX_BATCH);
+            boolean running = true;
+            while (running) {
+                try {
+                    batch.add(pending.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                pending.drainTo(batch, MAX_BATCH - 1);
+                if (batch.remove(SHUTDOWN)) {
+                    running = false;
+                }
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+                batch.clear();
+            }
+            // Only reached early if the writer was interrupted; nothing queued may wait forever
+            pending.drainTo(batch);
+            batch.remove(SHUTDOWN);
+            fail(batch, new IOException("Journal writer stopped"));
+        }
+
+        private static void fail(List<Entry> batch, IOException cause) {
+            for (Entry entry : batch) {
+                entry.done.completeExceptionally(new UncheckedIOException(cause));
+            }
+        }
+
+        private void commit(List<Entry> batch) {
+            if (failure != null) {
+                fail(batch, failure);
+                return;
+            }
+            long batchStart;
+            try {
+                batchStart = channel.position();
+            } catch (IOException e) {
+                failure = e;
+                fail(batch, e);
+                return;
+            }
+            try {
+                batchBuffer.clear();
+                for (Entry entry : batch) {
+                    int size = entry.encodedSize();
+                    if (size > batchBuffer.remaining()) {
+                        writeOut(batchBuffer);
+                    }
+                    if (size > batchBuffer.capacity()) {
+                        ByteBuffer large = ByteBuffer.allocate(size);
+                        encode(entry, large);
+                        writeOut(large);
+                    } else {
+                        encode(entry, batchBuffer);
+                    }
+                }
+                writeOut(batchBuffer);
+                long start = System.nanoTime();
+                channel.force(false);
+                syncNanos.addAndGet(System.nanoTime() - start);
+                syncCount.incrementAndGet();
+                recordCount.addAndGet(batch.size());
+            } catch (IOException e) {
+                // Cut the partial batch off so the next good record does not land behind garbage
+                try {
+                    channel.truncate(batchStart);
+                    channel.position(batchStart);
+                    channel.force(true);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                    failure = e;
+                }
+                fail(batch, e);
+                return;
+            }
+
+            for (Entry entry : batch) {
+                entry.changes.forEach(this::apply);
+                entry.done.complete(null);
+            }
+            recordsSinceSnapshot += batch.size();
+            if (recordsSinceSnapshot >= SNAPSHOT_INTERVAL) {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    failure = e; // the journal may be half reset; stop rather than guess
+                }
+            }
+        }
+
+        private void writeOut(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void encode(Entry entry, ByteBuffer target) {
+            int start = target.position();
+            if (entry.changes.size() != 1) {
+                target.put(BATCH).putShort((short) entry.changes.size());
+            }
+            for (Change change : entry.changes) {
+                byte[] card = change.cardNumber().getBytes(StandardCharsets.US_ASCII);
+                target.put(change.op()).put((byte) card.length).put(card).putLong(change.paise());
+            }
+            crc.reset();
+            crc.update(target.duplicate().position(start).limit(target.position()));
+            target.putInt((int) crc.getValue());
+        }
+
+        // Writes the journaled balances under the next generation, then starts an empty journal for it.
+        // A crash between the two steps is safe: recovery ignores a journal older than the snapshot.
+        private void snapshot() throws IOException {
+            long nextGeneration = generation + 1;
+            ByteBuffer buffer = ByteBuffer.allocate(16 + journaled.size() * (1 + 255 + 8));
+            buffer.putLong(nextGeneration).putInt(journaled.size());
+            for (Map.Entry<String, Long> balance : journaled.entrySet()) {
+                byte[] card = balance.getKey().getBytes(StandardCharsets.US_ASCII);
+                buffer.put((byte) card.length).put(card).putLong(balance.getValue());
+            }
+            crc.reset();
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) crc.getValue());
+
+            Path temp = snapshotPath.resolveSibling("snapshot.tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            generation = nextGeneration;
+            resetJournal();
+            recordsSinceSnapshot = 0;
+        }
+
+        private void resetJournal() throws IOException {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(generation);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+            channel.position(HEADER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (pending) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.add(SHUTDOWN);
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
         }
     }
 
-    // User authentication model
+    // User authentication model: only a salted PBKDF2 hash of the PIN is kept, never the PIN itself
     static class User {
         private final String cardNumber;
-        private final int pin;
+        private final byte[] salt;
+        private final byte[] pinHash;
+        private final BankAccount account;
 
-        public User(String cardNumber, int pin) {
+        public User(String cardNumber, int pin, BankAccount account) {
             this.cardNumber = cardNumber;
-            this.pin = pin;
+            this.salt = CredentialStore.newSalt();
+            this.pinHash = CredentialStore.slowHash(pin, salt);
+            this.account = account;
         }
 
+        // Full slow-hash check, compared in constant time
         public boolean authenticate(String enteredCardNumber, int enteredPin) {
-            return this.cardNumber.equals(enteredCardNumber) && this.pin == enteredPin;
+            return cardNumber.equals(enteredCardNumber)
+                    && MessageDigest.isEqual(pinHash, CredentialStore.slowHash(enteredPin, salt));
+        }
+
+        public String getCardNumber() {
+            return cardNumber;
+        }
+
+        public BankAccount getAccount() {
+            return account;
+        }
+    }
+
+    // Verifies PINs without letting login bursts saturate the CPU:
+    // - a card that keeps failing is locked out before any hashing is done; only a hash mismatch counts as
+    //   a failure, and a successful login clears the count
+    // - a card may have at most as many attempts in flight as it has failures left before the lockout, so
+    //   parallel guesses cannot slip past it while concurrent correct logins still go through
+    // - a successful login is remembered as a keyed fast hash in a bounded concurrent map, so repeat logins
+    //   skip PBKDF2 without serialising on a shared lock
+    static class CredentialStore {
+        private static final int ITERATIONS = 100_000;
+        private static final int HASH_BITS = 256;
+        private static final int MAX_FAILURES = 3;
+        private static final long LOCKOUT_MILLIS = 30_000;
+        private static final int CACHE_CAPACITY = 10_000;
+        private static final long CACHE_TTL_MILLIS = 5 * 60_000;
+        private static final SecureRandom RANDOM = new SecureRandom();
+
+        private final byte[] cacheKey = new byte[32]; // per-process, so cached tokens are useless outside this JVM
+        private final ThreadLocal<Mac> tokenMac = ThreadLocal.withInitial(this::newTokenMac);
+        private final Map<String, VerifiedLogin> verified = new ConcurrentHashMap<>();
+        private final Map<String, FailedAttempts> failures = new ConcurrentHashMap<>();
+        private volatile boolean cacheEnabled = true;
+
+        private record VerifiedLogin(byte[] token, long expiresAt) {
+        }
+
+        private record FailedAttempts(int count, int inFlight, long lockedUntil) {
+            // Counts a mismatch for a finished attempt; the MAX_FAILURES-th starts a lockout
+            FailedAttempts fail(long now) {
+                int failed = count + 1;
+                return failed >= MAX_FAILURES ? new FailedAttempts(0, inFlight - 1, now + LOCKOUT_MILLIS)
+                        : new FailedAttempts(failed, inFlight - 1, lockedUntil);
+            }
+
+            // A finished attempt that matched clears the failures, but not a lockout another attempt started;
+            // null once nothing is left to track
+            FailedAttempts succeed() {
+                return inFlight == 1 && lockedUntil == 0 ? null : new FailedAttempts(0, inFlight - 1, lockedUntil);
+            }
+        }
+
+        CredentialStore() {
+            RANDOM.nextBytes(cacheKey);
+        }
+
+        public void setCacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+            if (!cacheEnabled) {
+                verified.clear();
+            }
+        }
+
+        public boolean verify(User user, int pin) {
+            String cardNumber = user.getCardNumber();
+            long now = System.currentTimeMillis();
+            if (!startAttempt(cardNumber, now)) {
+                return false;
+            }
+
+            boolean authenticated = false;
+            try {
+                byte[] token = cacheEnabled ? token(cardNumber, pin) : null;
+                if (token != null) {
+                    VerifiedLogin login = verified.get(cardNumber);
+                    if (login != null && login.expiresAt() > now && MessageDigest.isEqual(login.token(), token)) {
+                        authenticated = true;
+                        return true;
+                    }
+                }
+                authenticated = user.authenticate(cardNumber, pin);
+                if (authenticated && token != null) {
+                    remember(cardNumber, new VerifiedLogin(token, now + CACHE_TTL_MILLIS));
+                } else if (!authenticated) {
+                    verified.remove(cardNumber);
+                }
+                return authenticated;
+            } finally {
+                boolean matched = authenticated;
+                failures.compute(cardNumber, (card, attempts) -> matched ? attempts.succeed() : attempts.fail(now));
+            }
+        }
+
+        // Admits an attempt, atomically with the lockout check: false while the card is locked out or already
+        // has as many attempts in flight as it has failures left
+        private boolean startAttempt(String cardNumber, long now) {
+            boolean[] admitted = {false};
+            failures.compute(cardNumber, (card, previous) -> {
+                FailedAttempts attempts = previous != null ? previous : new FailedAttempts(0, 0, 0);
+                if (attempts.lockedUntil() > now || attempts.count() + attempts.inFlight() >= MAX_FAILURES) {
+                    return previous;
+                }
+                admitted[0] = true;
+                return new FailedAttempts(attempts.count(), attempts.inFlight() + 1, attempts.lockedUntil());
+            });
+            return admitted[0];
+        }
+
+        // Caches a verified login; when full, expired entries go first, then arbitrary ones down to 90%
+        private void remember(String cardNumber, VerifiedLogin login) {
+            verified.put(cardNumber, login);
+            if (verified.size() > CACHE_CAPACITY) {
+                long now = System.currentTimeMillis();
+                verified.values().removeIf(cached -> cached.expiresAt() <= now);
+                Iterator<String> cards = verified.keySet().iterator();
+                while (verified.size() > CACHE_CAPACITY * 9 / 10 && cards.hasNext()) {
+                    cards.next();
+                    cards.remove();
+                }
+            }
+        }
+
+        private byte[] token(String cardNumber, int pin) {
+            Mac mac = tokenMac.get();
+            mac.update(cardNumber.getBytes(StandardCharsets.US_ASCII));
+            return mac.doFinal(ByteBuffer.allocate(4).putInt(pin).array());
+        }
+
+        private Mac newTokenMac() {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(cacheKey, "HmacSHA256"));
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        }
+
+        static byte[] newSalt() {
+            byte[] salt = new byte[16];
+            RANDOM.nextBytes(salt);
+            return salt;
+        }
+
+        static byte[] slowHash(int pin, byte[] salt) {
+            PBEKeySpec spec = new PBEKeySpec(Integer.toString(pin).toCharArray(), salt, ITERATIONS, HASH_BITS);
+            try {
+                return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("PBKDF2WithHmacSHA256 unavailable", e);
+            } finally {
+                spec.clearPassword();
+            }
+        }
+    }
+
+    // One account-to-account movement of money, in paise
+    record Transfer(String fromCard, String toCard, long paise) {
+    }
+
+    // Outcome of a transferBatches run
+    record BatchReport(int batches, int appliedBatches, long transfers, long elapsedNanos) {
+        double batchesPerSecond() {
+            return batches / (elapsedNanos / 1e9);
+        }
+
+        double transfersPerSecond() {
+            return transfers / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d batches applied, %d transfers in %.2f ms (%.0f batches/s, %.0f transfers/s)",
+                    appliedBatches, batches, transfers, elapsedNanos / 1e6, batchesPerSecond(), transfersPerSecond());
         }
     }
 
     // Handles authentication and bank accounts
-    static class Bank {
-        private final Map<String, User> users = new HashMap<>();
-        private final Map<String, BankAccount> accounts = new HashMap<>();
+    static class Bank implements AutoCloseable {
+        private final Map<String, User> users = new ConcurrentHashMap<>();
+        private final Map<String, BankAccount> accounts = new ConcurrentHashMap<>();
+        private final CredentialStore credentials = new CredentialStore();
+        private final TransactionJournal journal;
 
         public Bank() {
-            users.put("123456", new User("123456", 1234));
+            this.journal = null;
             accounts.put("123456", new BankAccount(10000));
-
-            users.put("654321", new User("654321", 4321));
             accounts.put("654321", new BankAccount(5000));
+            seedUsers();
+        }
+
+        // Bank whose balances are recovered from, and journaled to, the given directory
+        public Bank(Path dataDirectory) throws IOException {
+            this.journal = new TransactionJournal(dataDirectory);
+            Map<String, Long> balances = journal.recoveredBalances();
+            if (balances.isEmpty()) {
+                balances.put("123456", BankAccount.toPaise(10000));
+                balances.put("654321", BankAccount.toPaise(5000));
+                balances.forEach((card, paise) -> journal.append(TransactionJournal.OPEN, card, paise).join());
+            }
+            balances.forEach((card, paise) -> accounts.put(card, new BankAccount(card, paise, journal)));
+            seedUsers();
+        }
+
+        private void seedUsers() {
+            users.put("123456", new User("123456", 1234, accounts.get("123456")));
+            users.put("654321", new User("654321", 4321, accounts.get("654321")));
+        }
+
+        CredentialStore getCredentials() {
+            return credentials;
+        }
+
+        BankAccount getAccount(String cardNumber) {
+            return accounts.get(cardNumber);
+        }
+
+        TransactionJournal getJournal() {
+            return journal;
         }
 
         public BankAccount authenticateUser(String cardNumber, int pin) {
             User user = users.get(cardNumber);
-            return (user != null && user.authenticate(cardNumber, pin)) ? accounts.get(cardNumber) : null;
+            return (user != null && credentials.verify(user, pin)) ? user.getAccount() : null;
+        }
+
+        public boolean transfer(String fromCard, String toCard, long paise) {
+            return transferBatch(List.of(new Transfer(fromCard, toCard, paise)));
+        }
+
+        // Applies every transfer in the batch or none of them.
+        // Accounts are locked in card-number order, so overlapping batches can never deadlock. Every net
+        // change is checked before anything moves, the debits are taken, the credits held, and the whole
+        // batch is appended as one journal record; then the locks are released and the batch waits for its
+        // fsync like any single withdrawal. Credits land once it is durable; if the write fails the debits
+        // are refunded, so neither other sessions nor crash recovery can see part of it.
+        public boolean transferBatch(List<Transfer> batch) {
+            TreeMap<String, Long> netChange = new TreeMap<>();
+            for (Transfer transfer : batch) {
+                if (transfer.paise() <= 0 || transfer.fromCard().equals(transfer.toCard())
+                        || !accounts.containsKey(transfer.fromCard()) || !accounts.containsKey(transfer.toCard())) {
+                    return false;
+                }
+                try {
+                    netChange.merge(transfer.fromCard(), -transfer.paise(), Math::addExact);
+                    netChange.merge(transfer.toCard(), transfer.paise(), Math::addExact);
+                } catch (ArithmeticException e) {
+                    return false;
+                }
+            }
+
+            List<TransactionJournal.Change> changes = new ArrayList<>(netChange.size());
+            CompletableFuture<Void> write;
+            List<BankAccount> locked = new ArrayList<>(netChange.size());
+            try {
+                for (String card : netChange.keySet()) {
+                    BankAccount account = accounts.get(card);
+                    account.transferLock().lock();
+                    locked.add(account);
+                }
+                for (Map.Entry<String, Long> change : netChange.entrySet()) {
+                    BankAccount account = accounts.get(change.getKey());
+                    long delta = change.getValue();
+                    if (delta < 0 ? !account.canDebit(-delta) : delta > 0 && !account.canCredit(delta)) {
+                        return false; // would overdraw or overflow
+                    }
+                    if (delta != 0) {
+                        changes.add(new TransactionJournal.Change(delta < 0 ? TransactionJournal.WITHDRAW : TransactionJournal.DEPOSIT,
+                                change.getKey(), Math.abs(delta)));
+                    }
+                }
+                for (TransactionJournal.Change change : changes) {
+                    BankAccount account = accounts.get(change.cardNumber());
+                    if (change.op() == TransactionJournal.WITHDRAW) {
+                        account.takeDebit(change.paise());
+                    } else {
+                        account.holdCredit(change.paise());
+                    }
+                }
+                write = journal != null && !changes.isEmpty() ? journal.appendAll(changes) : CompletableFuture.completedFuture(null);
+            } finally {
+                for (BankAccount account : locked) {
+                    account.transferLock().unlock();
+                }
+            }
+
+            boolean durable = TransactionJournal.await(write);
+            for (TransactionJournal.Change change : changes) {
+                BankAccount account = accounts.get(change.cardNumber());
+                if (change.op() == TransactionJournal.DEPOSIT) {
+                    account.settleCredit(change.paise(), durable);
+                } else if (!durable) {
+                    account.refundDebit(change.paise());
+                }
+            }
+            return durable;
+        }
+
+        // Runs independent batches in parallel on the common fork-join pool
+        public BatchReport transferBatches(List<List<Transfer>> batches) {
+            long start = System.nanoTime();
+            long applied = batches.parallelStream().filter(this::transferBatch).count();
+            long elapsed = System.nanoTime() - start;
+            long transfers = batches.stream().mapToLong(List::size).sum();
+            return new BatchReport(batches.size(), (int) applied, transfers, elapsed);
+        }
+
+        // Sum of all balances in paise, plus credits still waiting for their fsync, taken with every account
+        // locked in card-number order. An in-flight transfer's debit and held credit cancel out, so concurrent
+        // transfers never change the total; only deposits and withdrawals do.
+        public long totalBalancePaise() {
+            List<BankAccount> locked = new ArrayList<>(accounts.size());
+            try {
+                for (String card : new TreeMap<>(accounts).keySet()) {
+                    BankAccount account = accounts.get(card);
+                    account.transferLock().lock();
+                    locked.add(account);
+                }
+                long total = 0;
+                for (BankAccount account : locked) {
+                    total += account.getBalancePaise() + account.getHeldCreditsPaise();
+                }
+                return total;
+            } finally {
+                for (BankAccount account : locked) {
+                    account.transferLock().unlock();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (journal != null) {
+                journal.close();
+            }
         }
     }
 
@@ -88,6 +980,224 @@ public class task3 {
         public void displayBalance() {
             System.out.println("💰 Current Balance: ₹" + account.getBalance());
         }
+
+        // Silent variants used by the network front end
+        public boolean tryDeposit(long paise) {
+            return account.tryDeposit(paise);
+        }
+
+        public boolean tryWithdraw(long paise) {
+            return account.tryWithdraw(paise);
+        }
+
+        public long getBalancePaise() {
+            return account.getBalancePaise();
+        }
+    }
+
+    // Socket front end: one session per connection, each served on its own (virtual, where available) thread.
+    // Line protocol, one request per line:
+    //   AUTH <card> <pin> | BALANCE | DEPOSIT <amount> | WITHDRAW <amount> | QUIT
+    // Replies are "OK [balance]", "ERR <reason>" or "BYE".
+    static class ATMServer implements AutoCloseable {
+        private final Bank bank;
+        private final ServerSocket serverSocket;
+        private final ExecutorService sessions = newSessionExecutor();
+        private volatile boolean running = true;
+
+        public ATMServer(Bank bank, int port) throws IOException {
+            this.bank = bank;
+            this.serverSocket = new ServerSocket(port, 4096);
+        }
+
+        public int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        public void serve() {
+            while (running) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    sessions.execute(() -> handle(socket));
+                } catch (IOException e) {
+                    if (running) {
+                        System.out.println("❌ Accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+                socket.setTcpNoDelay(true);
+                ATM atm = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] parts = line.trim().split("\\s+");
+                    String reply;
+                    if (parts[0].equalsIgnoreCase("QUIT")) {
+                        out.write("BYE\n");
+                        out.flush();
+                        return;
+                    } else if (parts[0].equalsIgnoreCase("AUTH")) {
+                        BankAccount account = parts.length == 3 ? authenticate(parts[1], parts[2]) : null;
+                        atm = account != null ? new ATM(account) : null;
+                        reply = atm != null ? "OK" : "ERR invalid card number or PIN";
+                    } else if (atm == null) {
+                        reply = "ERR not authenticated";
+                    } else {
+                        reply = execute(atm, parts);
+                    }
+                    out.write(reply);
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Terminal disconnected; nothing to clean up beyond the socket
+            }
+        }
+
+        private BankAccount authenticate(String cardNumber, String pin) {
+            try {
+                return bank.authenticateUser(cardNumber, Integer.parseInt(pin));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String execute(ATM atm, String[] parts) {
+            String command = parts[0].toUpperCase();
+            switch (command) {
+                case "BALANCE" -> {
+                    return "OK " + formatPaise(atm.getBalancePaise());
+                }
+                case "DEPOSIT", "WITHDRAW" -> {
+                    long paise = parts.length == 2 ? parseAmount(parts[1]) : 0;
+                    boolean done = command.equals("DEPOSIT") ? atm.tryDeposit(paise) : atm.tryWithdraw(paise);
+                    if (done) {
+                        return "OK " + formatPaise(atm.getBalancePaise());
+                    }
+                    return command.equals("DEPOSIT") ? "ERR invalid amount" : "ERR insufficient funds or invalid amount";
+                }
+                default -> {
+                    return "ERR unknown command";
+                }
+            }
+        }
+
+        private static long parseAmount(String amount) {
+            try {
+                return BankAccount.toPaise(Double.parseDouble(amount));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        static String formatPaise(long paise) {
+            return (paise / 100) + "." + String.format("%02d", paise % 100);
+        }
+
+        @Override
+        public void close() throws IOException {
+            running = false;
+            serverSocket.close();
+            sessions.shutdown();
+        }
+    }
+
+    // Virtual thread per task on JDK 21+, falling back to a cached platform-thread pool on older runtimes
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // Loopback load generator: simulated terminals each log in and run a deposit/withdraw/balance mix
+    static class ATMLoadGenerator {
+        private final String host;
+        private final int port;
+        private final int terminals;
+        private final int operationsPerTerminal;
+
+        public ATMLoadGenerator(String host, int port, int terminals, int operationsPerTerminal) {
+            this.host = host;
+            this.port = port;
+            this.terminals = terminals;
+            this.operationsPerTerminal = operationsPerTerminal;
+        }
+
+        public void run() throws InterruptedException {
+            String[][] cards = {{"123456", "1234"}, {"654321", "4321"}};
+            long[] latencies = new long[terminals * operationsPerTerminal];
+            AtomicLong failures = new AtomicLong();
+            CountDownLatch finished = new CountDownLatch(terminals);
+            ExecutorService executor = newSessionExecutor();
+
+            long start = System.nanoTime();
+            for (int t = 0; t < terminals; t++) {
+                int terminal = t;
+                executor.execute(() -> {
+                    try {
+                        runTerminal(cards[terminal % cards.length], latencies, terminal * operationsPerTerminal);
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            finished.await();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            long[] completed = Arrays.stream(latencies).filter(l -> l > 0).sorted().toArray();
+            System.out.println("\n📊 ATM load test: " + terminals + " terminals x " + operationsPerTerminal + " operations");
+            System.out.printf("Completed: %d operations, %d failed terminals%n", completed.length, failures.get());
+            System.out.printf("Throughput: %.0f ops/s%n", completed.length / (elapsed / 1e9));
+            if (completed.length > 0) {
+                System.out.printf("Latency p50: %.3f ms, p99: %.3f ms%n",
+                        percentile(completed, 0.50) / 1e6, percentile(completed, 0.99) / 1e6);
+            }
+        }
+
+        private void runTerminal(String[] card, long[] latencies, int offset) throws IOException {
+            try (Socket socket = new Socket(host, port);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+                socket.setTcpNoDelay(true);
+                request(in, out, "AUTH " + card[0] + " " + card[1]);
+                for (int i = 0; i < operationsPerTerminal; i++) {
+                    String command = switch (i % 3) {
+                        case 0 -> "DEPOSIT 10";
+                        case 1 -> "WITHDRAW 10";
+                        default -> "BALANCE";
+                    };
+                    long begin = System.nanoTime();
+                    request(in, out, command);
+                    latencies[offset + i] = Math.max(1, System.nanoTime() - begin);
+                }
+                request(in, out, "QUIT");
+            }
+        }
+
+        private static String request(BufferedReader in, Writer out, String command) throws IOException {
+            out.write(command);
+            out.write('\n');
+            out.flush();
+            String reply = in.readLine();
+            if (reply == null) {
+                throw new IOException("Server closed the connection");
+            }
+            return reply;
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+        }
     }
 
     // UI logic and user interaction
@@ -95,9 +1205,9 @@ public class task3 {
         private final Scanner scanner;
         private final Bank bank;
 
-        public ATMInterface() {
-            scanner = new Scanner(System.in);
-            bank = new Bank();
+        public ATMInterface(Bank bank) {
+            this.scanner = new Scanner(System.in);
+            this.bank = bank;
         }
 
         public void runATM() {
@@ -151,7 +1261,145 @@ public class task3 {
             }
         }
     }
+    // Usage: task3                                  - interactive console ATM
+    //        task3 server [port]                      - network ATM server
+    //        task3 load [port] [terminals] [ops]      - load test against a loopback server
+    //        task3 login-bench [threads] [logins]     - login throughput with the credential cache off and on
+    //        task3 stress [threads] [ops]             - concurrent money-conservation check on a scratch ledger
     public static void main(String[] args) {
-        new ATMInterface().runATM();
+        String mode = args.length > 0 ? args[0] : "console";
+        if (mode.equals("stress")) {
+            try {
+                stressTest(intArg(args, 1, 8), intArg(args, 2, 2000));
+            } catch (IOException e) {
+                System.out.println("❌ Stress test failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try (Bank bank = new Bank(Path.of("atm-data"))) {
+            TransactionJournal journal = bank.getJournal();
+            System.out.printf("🗂️ Ledger recovered in %.2f ms (%d journal records replayed)%n",
+                    journal.getRecoveryNanos() / 1e6, journal.getReplayedRecords());
+            switch (mode) {
+                case "server" -> {
+                    try (ATMServer server = new ATMServer(bank, intArg(args, 1, 9090))) {
+                        System.out.println("🏧 ATM server listening on port " + server.getPort());
+                        server.serve();
+                    }
+                }
+                case "load" -> {
+                    try (ATMServer server = new ATMServer(bank, intArg(args, 1, 0))) {
+                        Thread acceptor = new Thread(server::serve, "atm-acceptor");
+                        acceptor.setDaemon(true);
+                        acceptor.start();
+                        new ATMLoadGenerator("127.0.0.1", server.getPort(), intArg(args, 2, 1000), intArg(args, 3, 100)).run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                case "login-bench" -> benchmarkLogins(bank, intArg(args, 1, 4), intArg(args, 2, 50));
+                default -> new ATMInterface(bank).runATM();
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Unable to open the ledger: " + e.getMessage());
+        }
+    }
+
+    // Hammers a scratch ledger from many threads with transfers, transfer batches and deposit/withdraw pairs,
+    // then checks that the total equals the opening total plus net deposits, both in memory and after the
+    // ledger is reopened from its journal
+    private static void stressTest(int threads, int opsPerThread) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("atm-stress");
+        AtomicLong netDeposits = new AtomicLong();
+        long expected;
+        try (Bank bank = new Bank(directory)) {
+            long opening = bank.totalBalancePaise();
+            boolean overflowRejected = !bank.getAccount("123456").tryDeposit(Long.MAX_VALUE - 1)
+                    && BankAccount.toPaise(1e18) == 0;
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers[t] = new Thread(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < opsPerThread; i++) {
+                        long paise = 1 + random.nextInt(5_000);
+                        switch (random.nextInt(4)) {
+                            case 0 -> bank.transfer("123456", "654321", paise);
+                            case 1 -> bank.transfer("654321", "123456", paise);
+                            case 2 -> bank.transferBatch(List.of(new Transfer("123456", "654321", paise),
+                                    new Transfer("654321", "123456", 1 + random.nextInt(5_000))));
+                            default -> {
+                                BankAccount account = bank.getAccount(random.nextBoolean() ? "123456" : "654321");
+                                if (account.tryDeposit(paise)) {
+                                    netDeposits.addAndGet(paise);
+                                }
+                                long withdrawal = 1 + random.nextInt(5_000);
+                                if (account.tryWithdraw(withdrawal)) {
+                                    netDeposits.addAndGet(-withdrawal);
+                                }
+                            }
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            expected = opening + netDeposits.get();
+            System.out.printf("🏋️ %,d operations on %d threads in %.2f s (%,.0f ops/s)%n",
+                    (long) threads * opsPerThread, threads, seconds, threads * opsPerThread / seconds);
+            System.out.println(overflowRejected ? "✅ Overflowing deposits are rejected." : "❌ An overflowing deposit was accepted.");
+            report("in memory", bank.totalBalancePaise(), expected);
+        }
+        try (Bank reopened = new Bank(directory)) {
+            report("after replay", reopened.totalBalancePaise(), expected);
+        }
+    }
+
+    private static void report(String when, long actual, long expected) {
+        System.out.println(actual == expected
+                ? "✅ Balance conserved " + when + ": " + ATMServer.formatPaise(actual)
+                : "❌ Balance " + when + " is " + ATMServer.formatPaise(actual) + ", expected " + ATMServer.formatPaise(expected));
+    }
+
+    private static void benchmarkLogins(Bank bank, int threads, int loginsPerThread) {
+        for (boolean cacheEnabled : new boolean[] {false, true}) {
+            bank.getCredentials().setCacheEnabled(cacheEnabled);
+            Thread[] workers = new Thread[threads];
+            AtomicLong succeeded = new AtomicLong();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                boolean firstCard = t % 2 == 0;
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < loginsPerThread; i++) {
+                        if (bank.authenticateUser(firstCard ? "123456" : "654321", firstCard ? 1234 : 4321) != null) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long attempts = (long) threads * loginsPerThread;
+            System.out.printf("🔐 Cache %s: %.0f successful logins/s (%,d of %,d attempts succeeded)%n",
+                    cacheEnabled ? "enabled " : "disabled", succeeded.get() / seconds, succeeded.get(), attempts);
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
     }
 }
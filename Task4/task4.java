@@ -2,6 +2,45 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 abstract class Question {
     protected String questionText;
@@ -16,10 +55,22 @@ abstract class Question {
         this.questionNumber = questionNumber;
     }
 
-    public abstract void displayQuestion(JLabel questionLabel, JRadioButton[] optionButtons);
+    // Text shown above the options; renderers decide how to lay it out
+    public abstract String getPrompt();
+    public abstract String getCategory();
+    public String[] getOptions() {
+        return options;
+    }
+    public int getQuestionNumber() {
+        return questionNumber;
+    }
     public int getCorrectAnswerIndex() {
         return correctAnswerIndex;
     }
+    // option is 0-based, matching the order of getOptions(); -1 means no answer
+    public boolean isCorrect(int option) {
+        return option + 1 == correctAnswerIndex;
+    }
 }
 class CricketQuestion extends Question {
     public CricketQuestion(String questionText, String[] options, int correctAnswerIndex, int questionNumber) {
@@ -27,66 +78,1414 @@ class CricketQuestion extends Question {
     }
 
     @Override
-    public void displayQuestion(JLabel questionLabel, JRadioButton[] optionButtons) {
-        questionLabel.setText("<html><h3>Question " + questionNumber + ": " + questionText + "</h3></html>");
+    public String getPrompt() {
+        return "Question " + questionNumber + ": " + questionText;
+    }
+
+    @Override
+    public String getCategory() {
+        return "Cricket";
+    }
+}
+// A question from a bank, tagged with its category
+class GeneralQuestion extends Question {
+    private final String category;
+
+    public GeneralQuestion(String category, String questionText, String[] options, int correctAnswerIndex, int questionNumber) {
+        super(questionText, options, correctAnswerIndex, questionNumber);
+        this.category = category;
+    }
+
+    @Override
+    public String getPrompt() {
+        return "Question " + questionNumber + ": " + questionText;
+    }
+
+    @Override
+    public String getCategory() {
+        return category;
+    }
+}
+// Read-only binary question bank, memory-mapped so opening costs the same for ten questions or a million.
+// Only the header and category table are decoded up front; a Question is built from its record when a
+// session draws it. Layout (big-endian):
+//   header:     int magic "QBNK", int version, int question count, int category count
+//   categories: per category: short name length, UTF-8 name, int first question, int question count
+//   index:      long file offset of each question's record, questions grouped by category
+//   records:    byte correct answer (1-based), byte option count, then the text and each option,
+//               every string as an unsigned short length followed by UTF-8 bytes
+class QuestionBank implements AutoCloseable {
+    private static final int MAGIC = 0x51424E4B; // "QBNK"
+    private static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer; // only absolute reads, so safe to share between threads
+    private final Map<String, int[]> categories = new LinkedHashMap<>(); // name -> {first question, count}
+    private final int questionCount;
+    private final int indexOffset;
+
+    private QuestionBank(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < 16 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a question bank");
+        }
+        this.questionCount = buffer.getInt(8);
+        int categoryCount = buffer.getInt(12);
+        int position = 16;
+        for (int i = 0; i < categoryCount; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            String name = readString(position);
+            position += 2 + length;
+            categories.put(name, new int[] {buffer.getInt(position), buffer.getInt(position + 4)});
+            position += 8;
+        }
+        this.indexOffset = position;
+    }
+
+    static QuestionBank open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Question bank larger than 2 GB: " + file);
+            }
+            return new QuestionBank(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Writes the questions as a bank, grouped by category in first-seen order
+    static void write(Path file, List<? extends Question> questions) throws IOException {
+        Map<String, List<Question>> byCategory = new LinkedHashMap<>();
+        for (Question question : questions) {
+            byCategory.computeIfAbsent(question.getCategory(), c -> new ArrayList<>()).add(question);
+        }
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(questions.size());
+        out.writeInt(byCategory.size());
+        int first = 0;
+        for (Map.Entry<String, List<Question>> category : byCategory.entrySet()) {
+            writeString(out, category.getKey());
+            out.writeInt(first);
+            out.writeInt(category.getValue().size());
+            first += category.getValue().size();
+        }
+        long offset = header.size() + 8L * questions.size();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(records);
+        for (List<Question> category : byCategory.values()) {
+            for (Question question : category) {
+                out.writeLong(offset + records.size());
+                String[] options = question.getOptions();
+                if (options.length > 255) {
+                    throw new IllegalArgumentException("Too many options: " + question.getPrompt());
+                }
+                recordOut.writeByte(question.getCorrectAnswerIndex());
+                recordOut.writeByte(options.length);
+                writeString(recordOut, question.questionText);
+                for (String option : options) {
+                    writeString(recordOut, option);
+                }
+            }
+        }
+        if (offset + records.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Question bank would exceed 2 GB");
+        }
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            header.writeTo(stream);
+            records.writeTo(stream);
+        }
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(categories.keySet());
+    }
+
+    public int getCategorySize(String category) {
+        int[] range = categories.get(category);
+        return range == null ? 0 : range[1];
+    }
+
+    // Decodes one question; index is its position in the bank, questionNumber what the quiz will show
+    public Question getQuestion(int index, int questionNumber) {
+        if (index < 0 || index >= questionCount) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + questionCount);
+        }
+        int position = (int) buffer.getLong(indexOffset + index * 8);
+        int correct = Byte.toUnsignedInt(buffer.get(position));
+        String[] options = new String[Byte.toUnsignedInt(buffer.get(position + 1))];
+        position += 2;
+        String text = readString(position);
+        position += 2 + Short.toUnsignedInt(buffer.getShort(position));
         for (int i = 0; i < options.length; i++) {
-            optionButtons[i].setText(options[i]);
+            options[i] = readString(position);
+            position += 2 + Short.toUnsignedInt(buffer.getShort(position));
+        }
+        return new GeneralQuestion(categoryOf(index), text, options, correct, questionNumber);
+    }
+
+    // Draws the requested number of distinct questions from each category (all of them if it has fewer),
+    // shuffles the draw and numbers it 1..n. Floyd's algorithm picks k of n indexes with k random draws,
+    // so only the drawn records are ever read.
+    public Question[] sample(Map<String, Integer> perCategory, Random random) {
+        List<Integer> drawn = new ArrayList<>();
+        for (Map.Entry<String, Integer> request : perCategory.entrySet()) {
+            int[] range = categories.get(request.getKey());
+            if (range == null) {
+                throw new IllegalArgumentException("Unknown category: " + request.getKey());
+            }
+            int n = range[1];
+            int k = Math.min(request.getValue(), n);
+            Set<Integer> chosen = new HashSet<>(k * 2);
+            for (int j = n - k; j < n; j++) {
+                int t = random.nextInt(j + 1);
+                chosen.add(chosen.contains(t) ? j : t);
+            }
+            for (int index : chosen) {
+                drawn.add(range[0] + index);
+            }
+        }
+        Collections.shuffle(drawn, random);
+        Question[] questions = new Question[drawn.size()];
+        for (int i = 0; i < questions.length; i++) {
+            questions[i] = getQuestion(drawn.get(i), i + 1);
+        }
+        return questions;
+    }
+
+    private String categoryOf(int index) {
+        for (Map.Entry<String, int[]> category : categories.entrySet()) {
+            int[] range = category.getValue();
+            if (index >= range[0] && index < range[0] + range[1]) {
+                return category.getKey();
+            }
+        }
+        return "";
+    }
+
+    private String readString(int position) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String longer than 65535 bytes in question bank");
         }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
     }
 }
-class QuizTimer extends SwingWorker<Void, Integer> {
-    private int timeRemaining;
-    private JLabel timerLabel;
-    private Runnable onTimeOut;
+// Answer key for bulk grading: the correct option of each question, 0-based, also packed 2 bits per
+// question (32 to a long) so a submission can be compared a word at a time. Supports up to 4 options.
+final class AnswerKey {
+    private final byte[] correctOptions;
+    private final long[] words;
+
+    AnswerKey(byte[] correctOptions) {
+        this.correctOptions = correctOptions.clone();
+        this.words = new long[(correctOptions.length + 31) / 32];
+        for (int i = 0; i < correctOptions.length; i++) {
+            if (correctOptions[i] < 0 || correctOptions[i] > 3) {
+                throw new IllegalArgumentException("Question " + (i + 1) + " has more than 4 options");
+            }
+            words[i >>> 5] |= (long) correctOptions[i] << ((i & 31) * 2);
+        }
+    }
+
+    // Every question must have at most 4 options, since submissions are packed the same way
+    static AnswerKey of(Question[] questions) {
+        byte[] key = new byte[questions.length];
+        for (int i = 0; i < questions.length; i++) {
+            int options = questions[i].getOptions().length;
+            int correct = questions[i].getCorrectAnswerIndex(); // 1-based in Question
+            if (options > 4) {
+                throw new IllegalArgumentException("Question " + (i + 1) + " has " + options + " options; at most 4 are supported");
+            }
+            if (correct < 1 || correct > options) {
+                throw new IllegalArgumentException("Question " + (i + 1) + " has no option " + correct);
+            }
+            key[i] = (byte) (correct - 1);
+        }
+        return new AnswerKey(key);
+    }
+
+    int getQuestionCount() {
+        return correctOptions.length;
+    }
+
+    long word(int index) {
+        return words[index];
+    }
+
+    int wordCount() {
+        return words.length;
+    }
+}
+// Submissions packed for bulk grading: 2 bits per chosen option, plus 1 bit per question saying
+// whether it was answered at all, so a blank never matches option 0.
+final class SubmissionBatch {
+    private final int questionCount;
+    private final int answerWords;
+    private final int maskWords;
+    private long[] answers;
+    private long[] answered;
+    private int count;
+
+    SubmissionBatch(int questionCount, int expectedSubmissions) {
+        this.questionCount = questionCount;
+        this.answerWords = (questionCount + 31) / 32;
+        this.maskWords = (questionCount + 63) / 64;
+        this.answers = new long[Math.max(1, expectedSubmissions) * answerWords];
+        this.answered = new long[Math.max(1, expectedSubmissions) * maskWords];
+    }
+
+    // options[i] is the 0-based choice for question i, or -1 if left blank; returns the submission's index
+    int add(int[] options) {
+        if (options.length != questionCount) {
+            throw new IllegalArgumentException("Expected " + questionCount + " answers, got " + options.length);
+        }
+        if ((count + 1) * answerWords > answers.length) {
+            answers = Arrays.copyOf(answers, answers.length * 2);
+            answered = Arrays.copyOf(answered, answered.length * 2);
+        }
+        int answerBase = count * answerWords;
+        int maskBase = count * maskWords;
+        for (int i = 0; i < questionCount; i++) {
+            int option = options[i];
+            if (option < 0) {
+                continue;
+            }
+            if (option > 3) {
+                throw new IllegalArgumentException("Option " + option + " does not fit in 2 bits");
+            }
+            answers[answerBase + (i >>> 5)] |= (long) option << ((i & 31) * 2);
+            answered[maskBase + (i >>> 6)] |= 1L << (i & 63);
+        }
+        return count++;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getQuestionCount() {
+        return questionCount;
+    }
+
+    // Low bit of each 2-bit lane set where the submission matches the key, for 32 questions at a time
+    long matches(int submission, int word, long keyWord) {
+        long diff = answers[submission * answerWords + word] ^ keyWord;
+        long equal = ~(diff | (diff >>> 1)) & 0x5555555555555555L;
+        long mask = answered[submission * maskWords + (word >>> 1)] >>> ((word & 1) * 32);
+        return equal & spread(mask);
+    }
+
+    // Moves the low 32 bits to the even bit positions, one per 2-bit lane
+    private static long spread(long x) {
+        x &= 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+}
+// Scores of every submission plus item statistics: difficulty is the share who answered each question
+// correctly, discrimination the point-biserial correlation between getting it right and the total score
+record GradingReport(int[] scores, double meanScore, double[] difficulty, double[] discrimination) {
+}
+// Grades a SubmissionBatch against an AnswerKey on the common fork-join pool. A submission is scored by
+// XOR-ing its packed answers with the key and counting matching lanes with bitCount, 32 questions per
+// step; the per-question tallies for the item statistics are gathered while its words are still in cache.
+class BatchScorer {
+    private static final int LEAF_SIZE = 4096;
+
+    static GradingReport grade(AnswerKey key, SubmissionBatch batch) {
+        if (key.getQuestionCount() != batch.getQuestionCount()) {
+            throw new IllegalArgumentException("Answer key and submissions have different question counts");
+        }
+        int[] scores = new int[batch.getCount()];
+        Tally tally = ForkJoinPool.commonPool().invoke(new GradeTask(key, batch, scores, 0, batch.getCount()));
+        int questions = key.getQuestionCount();
+        double n = batch.getCount();
+        double mean = n == 0 ? 0 : tally.scoreSum / n;
+        double deviation = n == 0 ? 0 : Math.sqrt(Math.max(0, tally.scoreSquares / n - mean * mean));
+        double[] difficulty = new double[questions];
+        double[] discrimination = new double[questions];
+        for (int q = 0; q < questions; q++) {
+            long right = tally.correct[q];
+            if (n == 0) {
+                continue;
+            }
+            double p = right / n;
+            difficulty[q] = p;
+            if (right == 0 || right == n || deviation == 0) {
+                continue; // nobody (or everybody) got it right: no spread to correlate with
+            }
+            double meanRight = (double) tally.scoreSumWhenRight[q] / right;
+            double meanWrong = (double) (tally.scoreSum - tally.scoreSumWhenRight[q]) / (n - right);
+            discrimination[q] = (meanRight - meanWrong) / deviation * Math.sqrt(p * (1 - p));
+        }
+        return new GradingReport(scores, mean, difficulty, discrimination);
+    }
+
+    private static final class Tally {
+        final long[] correct;
+        final long[] scoreSumWhenRight;
+        long scoreSum;
+        long scoreSquares;
+
+        Tally(int questions) {
+            correct = new long[questions];
+            scoreSumWhenRight = new long[questions];
+        }
+
+        Tally merge(Tally other) {
+            for (int q = 0; q < correct.length; q++) {
+                correct[q] += other.correct[q];
+                scoreSumWhenRight[q] += other.scoreSumWhenRight[q];
+            }
+            scoreSum += other.scoreSum;
+            scoreSquares += other.scoreSquares;
+            return this;
+        }
+    }
+
+    private static final class GradeTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final AnswerKey key;
+        private final SubmissionBatch batch;
+        private final int[] scores;
+        private final int from;
+        private final int to;
+
+        GradeTask(AnswerKey key, SubmissionBatch batch, int[] scores, int from, int to) {
+            this.key = key;
+            this.batch = batch;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                GradeTask left = new GradeTask(key, batch, scores, from, mid);
+                left.fork();
+                Tally right = new GradeTask(key, batch, scores, mid, to).compute();
+                return left.join().merge(right);
+            }
+            Tally tally = new Tally(key.getQuestionCount());
+            int words = key.wordCount();
+            long[] matches = new long[words]; // one submission's match lanes, reused for the tallies
+            for (int s = from; s < to; s++) {
+                int score = 0;
+                for (int w = 0; w < words; w++) {
+                    matches[w] = batch.matches(s, w, key.word(w));
+                    score += Long.bitCount(matches[w]);
+                }
+                scores[s] = score;
+                tally.scoreSum += score;
+                tally.scoreSquares += (long) score * score;
+                for (int w = 0; w < words; w++) {
+                    long matched = matches[w];
+                    while (matched != 0) {
+                        int question = w * 32 + (Long.numberOfTrailingZeros(matched) >>> 1);
+                        tally.correct[question]++;
+                        tally.scoreSumWhenRight[question] += score;
+                        matched &= matched - 1;
+                    }
+                }
+            }
+            return tally;
+        }
+    }
+}
+// One event of a quiz attempt, as stored in an AttemptLog
+record AttemptEvent(long sessionId, long timeMicros, int type, int questionIndex, int option, boolean correct, int value) {
+    static final int STARTED = 1;   // value: number of questions
+    static final int SHOWN = 2;     // questionIndex is now on screen
+    static final int ANSWERED = 3;  // option: 0-based choice, -1 if submitted blank
+    static final int TIMED_OUT = 4;
+    static final int FINISHED = 5;  // value: final score
+}
+// State of one attempt rebuilt from the log: answers[i] is the 0-based choice, -1 blank, -2 timed out
+record AttemptReplay(long sessionId, int questionCount, int score, int currentQuestionIndex, boolean finished, int[] answers) {
+}
+// Append-only, memory-mapped log of quiz attempt events in fixed 32-byte records. Appenders claim a
+// slot with one atomic increment and write straight into the mapping, so sessions on many threads never
+// share a lock; the file grows a segment (64 MB) at a time. The type byte is written last and marks the
+// record as complete, so a crash leaves at most some zeroed holes, which readers skip. With durability
+// on, a sync thread forces everything below the written high-water mark (the first claimed slot whose
+// record is not complete yet) every SYNC_INTERVAL, or sooner once another SYNC_BATCH slots are claimed,
+// so appenders never wait on the disk and a crash loses at most the last interval.
+//
+// Record layout: long session id, long time (epoch micros), int question index, byte type,
+// byte unused, byte correct, byte unused, int value, int option. Record 0 is the file header, which also
+// keeps the session id high-water mark so ids stay unique across runs.
+class AttemptLog implements AutoCloseable {
+    private static final int MAGIC = 0x51415454; // "QATT"
+    private static final int VERSION = 2; // 2 widened the option from a byte to an int
+    private static final int RECORD_SIZE = 32;
+    private static final int SEGMENT_RECORDS = 1 << 21;
+    private static final int SYNC_BATCH = 4096;
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long HOLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1); // an appender that failed mid-record
+    private static final int MAX_SEGMENTS = 4096;
+    private static final int H_NEXT_SESSION_ID = 16;
+    private static final int SESSION_ID_BLOCK = 1024;
+
+    private final FileChannel channel;
+    private final boolean durable;
+    private final AtomicReferenceArray<MappedByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicLong nextSlot;
+    private final AtomicLong nextSessionId;
+    private volatile long reservedSessionIds; // ids below this are covered by the header
+    private final long epochMicrosAtOpen;
+    private final long nanosAtOpen = System.nanoTime();
+    private final Thread syncer; // null unless durable
+    private volatile boolean running = true;
+    private long forcedUpTo; // sync thread only: every record below is on disk
+    private long holeSlot = -1; // sync thread only: incomplete slot the high-water mark is stuck at
+    private long holeSince;
+
+    private AttemptLog(FileChannel channel, boolean durable) throws IOException {
+        this.channel = channel;
+        this.durable = durable;
+        Instant now = Instant.now();
+        this.epochMicrosAtOpen = now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+        MappedByteBuffer first = segment(0);
+        if (first.getInt(0) == 0) {
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+            first.putInt(8, RECORD_SIZE);
+            first.putLong(H_NEXT_SESSION_ID, 1);
+        } else if (first.getInt(0) != MAGIC) {
+            throw new IOException("Not a quiz attempt log");
+        } else if (first.getInt(4) != VERSION) {
+            throw new IOException("Unsupported attempt log version " + first.getInt(4) + "; move the old log aside");
+        }
+        this.nextSlot = new AtomicLong(recoverEnd());
+        this.reservedSessionIds = first.getLong(H_NEXT_SESSION_ID);
+        this.nextSessionId = new AtomicLong(reservedSessionIds);
+        this.forcedUpTo = nextSlot.get();
+        if (durable) {
+            this.syncer = new Thread(this::syncLoop, "attempt-log-sync");
+            this.syncer.setDaemon(true);
+            this.syncer.start();
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    static AttemptLog open(Path file, boolean durable) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new AttemptLog(channel, durable);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Next free slot: one past the last complete record in the last segment the file holds
+    private long recoverEnd() throws IOException {
+        int lastSegment = (int) Math.max(0, (channel.size() - 1) / ((long) SEGMENT_RECORDS * RECORD_SIZE));
+        MappedByteBuffer last = segment(lastSegment);
+        for (int slot = SEGMENT_RECORDS - 1; slot >= 0; slot--) {
+            if (last.get(slot * RECORD_SIZE + 20) != 0) {
+                return (long) lastSegment * SEGMENT_RECORDS + slot + 1;
+            }
+        }
+        return lastSegment == 0 ? 1 : (long) lastSegment * SEGMENT_RECORDS;
+    }
+
+    private MappedByteBuffer segment(int index) throws IOException {
+        MappedByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            synchronized (this) {
+                segment = segments.get(index);
+                if (segment == null) {
+                    long size = (long) SEGMENT_RECORDS * RECORD_SIZE;
+                    segment = channel.map(FileChannel.MapMode.READ_WRITE, index * size, size);
+                    segments.set(index, segment);
+                }
+            }
+        }
+        return segment;
+    }
+
+    // A session id never used before in this log; the header is bumped a block at a time
+    long newSessionId() {
+        long id = nextSessionId.getAndIncrement();
+        if (id >= reservedSessionIds) {
+            synchronized (this) {
+                while (id >= reservedSessionIds) {
+                    reservedSessionIds += SESSION_ID_BLOCK;
+                }
+                segments.get(0).putLong(H_NEXT_SESSION_ID, reservedSessionIds);
+                if (durable) {
+                    segments.get(0).force(H_NEXT_SESSION_ID, 8);
+                }
+            }
+        }
+        return id;
+    }
+
+    long nowMicros() {
+        return epochMicrosAtOpen + (System.nanoTime() - nanosAtOpen) / 1000;
+    }
+
+    void append(long sessionId, int type, int questionIndex, int option, boolean correct, int value) {
+        long slot = nextSlot.getAndIncrement();
+        try {
+            MappedByteBuffer segment = segment((int) (slot / SEGMENT_RECORDS));
+            int position = (int) (slot % SEGMENT_RECORDS) * RECORD_SIZE;
+            segment.putLong(position, sessionId);
+            segment.putLong(position + 8, nowMicros());
+            segment.putInt(position + 16, questionIndex);
+            segment.put(position + 22, (byte) (correct ? 1 : 0));
+            segment.putInt(position + 24, value);
+            segment.putInt(position + 28, option);
+            VarHandle.releaseFence();
+            segment.put(position + 20, (byte) type); // commit
+            if (durable && slot % SYNC_BATCH == 0) {
+                LockSupport.unpark(syncer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, SYNC_INTERVAL_NANOS);
+            try {
+                syncWritten();
+            } catch (IOException | UncheckedIOException e) {
+                System.out.println("❌ Attempt log sync stopped: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Forces the records between the last force and the written high-water mark. A slot still incomplete
+    // after HOLE_TIMEOUT was abandoned by its appender and is stepped over, so it cannot stall syncing.
+    private void syncWritten() throws IOException {
+        long end = nextSlot.get();
+        long written = forcedUpTo;
+        while (written < end) {
+            int position = (int) (written % SEGMENT_RECORDS) * RECORD_SIZE;
+            if (segment((int) (written / SEGMENT_RECORDS)).get(position + 20) != 0
+                    || written == holeSlot && System.nanoTime() - holeSince > HOLE_TIMEOUT_NANOS) {
+                written++;
+                continue;
+            }
+            if (written != holeSlot) {
+                holeSlot = written;
+                holeSince = System.nanoTime();
+            }
+            break;
+        }
+        if (written > forcedUpTo) {
+            force(forcedUpTo, written);
+            forcedUpTo = written;
+        }
+    }
+
+    // Forces records [from, to), which may straddle a segment boundary
+    private void force(long from, long to) throws IOException {
+        while (from < to) {
+            int index = (int) (from / SEGMENT_RECORDS);
+            long segmentEnd = Math.min(to, (index + 1L) * SEGMENT_RECORDS);
+            int offset = (int) (from % SEGMENT_RECORDS) * RECORD_SIZE;
+            segment(index).force(offset, (int) (segmentEnd - from) * RECORD_SIZE);
+            from = segmentEnd;
+        }
+    }
+
+    // Streams every complete record in append order without holding more than one in memory
+    void forEach(Consumer<AttemptEvent> visitor) {
+        long end = nextSlot.get();
+        try {
+            for (long slot = 1; slot < end; slot++) {
+                MappedByteBuffer segment = segment((int) (slot / SEGMENT_RECORDS));
+                int position = (int) (slot % SEGMENT_RECORDS) * RECORD_SIZE;
+                int type = segment.get(position + 20);
+                if (type == 0) {
+                    continue; // claimed but never completed
+                }
+                visitor.accept(new AttemptEvent(segment.getLong(position), segment.getLong(position + 8), type,
+                        segment.getInt(position + 16), segment.getInt(position + 28), segment.get(position + 22) != 0,
+                        segment.getInt(position + 24)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-    public QuizTimer(int timeRemaining, JLabel timerLabel, Runnable onTimeOut) {
-        this.timeRemaining = timeRemaining;
-        this.timerLabel = timerLabel;
-        this.onTimeOut = onTimeOut;
+    // Rebuilds one attempt by applying its events in order, exactly as QuizSession did
+    AttemptReplay replay(long sessionId) {
+        int[] questionCount = {0};
+        int[] score = {0};
+        int[] current = {0};
+        boolean[] finished = {false};
+        List<Integer> answers = new ArrayList<>();
+        forEach(event -> {
+            if (event.sessionId() != sessionId) {
+                return;
+            }
+            switch (event.type()) {
+                case AttemptEvent.STARTED -> questionCount[0] = event.value();
+                case AttemptEvent.ANSWERED, AttemptEvent.TIMED_OUT -> {
+                    answers.add(event.type() == AttemptEvent.TIMED_OUT ? -2 : event.option());
+                    if (event.correct()) {
+                        score[0]++;
+                    }
+                    current[0] = event.questionIndex() + 1;
+                }
+                case AttemptEvent.FINISHED -> finished[0] = true;
+                default -> {
+                }
+            }
+        });
+        return new AttemptReplay(sessionId, questionCount[0], score[0], current[0], finished[0],
+                answers.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    long getEventCount() {
+        return nextSlot.get() - 1;
     }
 
     @Override
-    protected Void doInBackground() {
-        for (int i = timeRemaining; i >= 0; i--) {
+    public void close() throws IOException {
+        running = false;
+        if (syncer != null) {
+            LockSupport.unpark(syncer);
             try {
-                Thread.sleep(1000); // Wait for 1 second
-                publish(i); // Publish the time left to the UI
+                syncer.join();
             } catch (InterruptedException e) {
-                // Handle the case where the thread is interrupted (e.g. when switching questions)
-                return null; 
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (durable) {
+            for (int i = 0; i < MAX_SEGMENTS && segments.get(i) != null; i++) {
+                segments.get(i).force();
+            }
+        }
+        channel.close();
+    }
+}
+// Aggregates an attempt log in one streaming pass. Only sessions with a question on screen are held
+// (their show time), so memory follows concurrency, not log length. Statistics are per question position.
+class AttemptAnalytics implements Consumer<AttemptEvent> {
+    private final Map<Long, Long> shownAt = new HashMap<>();
+    private long[] answered = new long[16];
+    private long[] timedOut = new long[16];
+    private long[] correct = new long[16];
+    private long[] micros = new long[16];
+    private long started;
+    private long finished;
+
+    @Override
+    public void accept(AttemptEvent event) {
+        switch (event.type()) {
+            case AttemptEvent.STARTED -> started++;
+            case AttemptEvent.SHOWN -> shownAt.put(event.sessionId(), event.timeMicros());
+            case AttemptEvent.ANSWERED, AttemptEvent.TIMED_OUT -> {
+                int q = event.questionIndex();
+                if (q >= answered.length) {
+                    int size = Math.max(q + 1, answered.length * 2);
+                    answered = Arrays.copyOf(answered, size);
+                    timedOut = Arrays.copyOf(timedOut, size);
+                    correct = Arrays.copyOf(correct, size);
+                    micros = Arrays.copyOf(micros, size);
+                }
+                if (event.type() == AttemptEvent.TIMED_OUT) {
+                    timedOut[q]++;
+                } else {
+                    answered[q]++;
+                }
+                if (event.correct()) {
+                    correct[q]++;
+                }
+                Long shown = shownAt.remove(event.sessionId());
+                if (shown != null) {
+                    micros[q] += event.timeMicros() - shown;
+                }
+            }
+            case AttemptEvent.FINISHED -> {
+                finished++;
+                shownAt.remove(event.sessionId());
+            }
+            default -> {
+            }
+        }
+    }
+
+    void print() {
+        System.out.printf("📈 %,d attempts started, %,d finished%n", started, finished);
+        for (int q = 0; q < answered.length; q++) {
+            long total = answered[q] + timedOut[q];
+            if (total == 0) {
+                continue;
+            }
+            System.out.printf("   Q%d: %,d responses, %.1f%% timed out, %.1f%% correct, %.1f ms average%n", q + 1, total,
+                    100.0 * timedOut[q] / total, 100.0 * correct[q] / total, micros[q] / 1000.0 / total);
+        }
+    }
+}
+// Receives quiz progress; the Swing window is one implementation, a network API could be another
+interface QuizListener {
+    void onQuestion(QuizSession session, Question question, int index);
+    void onFinished(QuizSession session, int score, int total);
+    // Countdown for the current question, once per second, when the session's clock has ticks enabled
+    default void onTick(QuizSession session, int secondsLeft) {
+    }
+}
+// Hashed timing wheel: one thread serves every deadline in the JVM. Scheduling and cancelling are O(1)
+// and lock-free for the caller (the timeout is queued, the wheel thread links or unlinks it on its next
+// tick); a deadline fires within one tick of when it is due. Tasks run on the wheel thread and must be
+// short, so anything heavier should hand itself off to another executor.
+final class TimerWheel implements AutoCloseable {
+    private final long tickNanos;
+    private final Timeout[] buckets; // heads of doubly linked lists, touched only by the wheel thread
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick; // wheel thread only
+
+    TimerWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.worker = new Thread(this::run, "quiz-timer-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + unit.toNanos(delay));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (running) {
+            long wakeUp = startNanos + (tick + 1) * tickNanos;
+            long sleep = wakeUp - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue; // parkNanos may return early
+            }
+            unlinkCancelled();
+            linkScheduled();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void unlinkCancelled() {
+        for (Timeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll()) {
+            if (timeout.linked) {
+                unlink(timeout);
+            }
+        }
+    }
+
+    private void linkScheduled() {
+        for (Timeout timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue; // cancelled before it was ever linked
+            }
+            long due = Math.max(timeout.deadline / tickNanos, tick); // overdue timeouts fire on this tick
+            timeout.rounds = (due - tick) / buckets.length;
+            int bucket = (int) (due & mask);
+            timeout.bucket = bucket;
+            timeout.next = buckets[bucket];
+            if (timeout.next != null) {
+                timeout.next.prev = timeout;
+            }
+            buckets[bucket] = timeout;
+            timeout.linked = true;
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0) {
+                unlink(timeout);
+                timeout.expire();
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.linked = false;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    static final class Timeout {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadline; // nanos since the wheel started
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Linkage, owned by the wheel thread
+        private Timeout next;
+        private Timeout prev;
+        private int bucket;
+        private long rounds;
+        private boolean linked;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // Returns false if the task has already run (or is running)
+        boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Quiz timer task failed: " + e);
+                }
+            }
+        }
+    }
+}
+// Per-question time limit for sessions. Timer events are handed to the dispatcher, e.g.
+// SwingUtilities::invokeLater for a window, or Runnable::run to handle them on the wheel thread.
+record QuizClock(TimerWheel wheel, int secondsPerQuestion, boolean countdown, Executor dispatcher) {
+}
+// Supplies questions one at a time as a session reaches them, seeing each result before the next pick
+interface QuestionPicker {
+    // Returns null when there is nothing left to ask, which ends the quiz early
+    Question pick(int index);
+    void result(int index, boolean correct);
+}
+// Elo-style adaptive item selection over a question bank. Every item has a difficulty rating and every
+// candidate an ability on the same logit scale; a candidate answers correctly with probability
+// 1 / (1 + e^(difficulty - ability)), and both ratings move by K * (result - expected) after each answer,
+// with K shrinking as evidence accumulates. The most informative next item is one whose difficulty
+// matches the ability, so items are kept in fixed-width difficulty buckets and selection searches
+// outward from the candidate's bucket; a rating change that crosses a bucket boundary moves the item
+// in O(1) by swap-removal. Thread-safe; one selector is shared by every candidate on a bank.
+class AdaptiveSelector {
+    private static final double MIN_RATING = -6;
+    private static final double MAX_RATING = 6;
+    private static final int BUCKETS = 96;
+    private static final double BUCKET_WIDTH = (MAX_RATING - MIN_RATING) / BUCKETS;
+
+    private final double[] ratings;
+    private final int[] responses;
+    private final int[][] buckets; // item ids per difficulty bucket, unordered
+    private final int[] bucketSizes = new int[BUCKETS];
+    private final int[] bucketOf;
+    private final int[] slotOf; // position of each item in its bucket
+
+    AdaptiveSelector(int itemCount) {
+        this.ratings = new double[itemCount];
+        this.responses = new int[itemCount];
+        this.buckets = new int[BUCKETS][];
+        this.bucketOf = new int[itemCount];
+        this.slotOf = new int[itemCount];
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets[b] = new int[16];
+        }
+        for (int item = 0; item < itemCount; item++) {
+            insert(item, bucket(0));
+        }
+    }
+
+    // Starts an item from an observed share of correct answers, e.g. BatchScorer's difficulty
+    synchronized void seed(int item, double shareCorrect) {
+        double p = Math.min(0.99, Math.max(0.01, shareCorrect));
+        setRating(item, Math.log((1 - p) / p));
+    }
+
+    // Picks an unasked item whose difficulty is closest to the ability, at random within a bucket so
+    // equally suitable items share the exposure; returns -1 once every item has been asked
+    synchronized int select(double ability, BitSet asked, Random random) {
+        int target = bucket(ability);
+        for (int distance = 0; distance < BUCKETS; distance++) {
+            int below = target - distance;
+            int above = target + distance;
+            boolean belowFirst = random.nextBoolean();
+            int item = pickFrom(belowFirst ? below : above, asked, random);
+            if (item < 0 && distance > 0) {
+                item = pickFrom(belowFirst ? above : below, asked, random);
             }
+            if (item >= 0) {
+                return item;
+            }
+        }
+        return -1;
+    }
+
+    private int pickFrom(int bucket, BitSet asked, Random random) {
+        if (bucket < 0 || bucket >= BUCKETS || bucketSizes[bucket] == 0) {
+            return -1;
+        }
+        int size = bucketSizes[bucket];
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int item = buckets[bucket][(start + i) % size];
+            if (!asked.get(item)) {
+                return item;
+            }
+        }
+        return -1;
+    }
+
+    // Applies one response and returns the candidate's new ability; answeredBefore is how many
+    // responses that ability estimate already rests on
+    synchronized double update(int item, double ability, int answeredBefore, boolean correct) {
+        double surprise = (correct ? 1 : 0) - 1 / (1 + Math.exp(ratings[item] - ability));
+        double candidateK = 1.0 / (1 + 0.1 * answeredBefore);
+        double itemK = 0.4 / (1 + 0.05 * responses[item]);
+        responses[item]++;
+        setRating(item, ratings[item] - itemK * surprise);
+        return Math.min(MAX_RATING, Math.max(MIN_RATING, ability + candidateK * surprise));
+    }
+
+    synchronized double getRating(int item) {
+        return ratings[item];
+    }
+
+    synchronized int getResponses(int item) {
+        return responses[item];
+    }
+
+    private void setRating(int item, double rating) {
+        ratings[item] = Math.min(MAX_RATING, Math.max(MIN_RATING, rating));
+        int bucket = bucket(ratings[item]);
+        if (bucket != bucketOf[item]) {
+            remove(item);
+            insert(item, bucket);
+        }
+    }
+
+    private void insert(int item, int bucket) {
+        if (bucketSizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], buckets[bucket].length * 2);
+        }
+        buckets[bucket][bucketSizes[bucket]] = item;
+        slotOf[item] = bucketSizes[bucket]++;
+        bucketOf[item] = bucket;
+    }
+
+    private void remove(int item) {
+        int bucket = bucketOf[item];
+        int last = buckets[bucket][--bucketSizes[bucket]];
+        buckets[bucket][slotOf[item]] = last;
+        slotOf[last] = slotOf[item];
+    }
+
+    private static int bucket(double rating) {
+        return Math.min(BUCKETS - 1, Math.max(0, (int) ((rating - MIN_RATING) / BUCKET_WIDTH)));
+    }
+}
+// One candidate's adaptive quiz: tracks their ability estimate and the items already asked, and draws
+// each next question from the bank through the shared selector
+class AdaptiveCandidate implements QuestionPicker {
+    private final AdaptiveSelector selector;
+    private final QuestionBank bank;
+    private final Random random;
+    private final BitSet asked = new BitSet();
+    private final int[] items; // bank item behind each session index
+    private double ability;
+    private int answered;
+
+    AdaptiveCandidate(AdaptiveSelector selector, QuestionBank bank, int questionCount, Random random) {
+        this.selector = selector;
+        this.bank = bank;
+        this.random = random;
+        this.items = new int[questionCount];
+    }
+
+    @Override
+    public Question pick(int index) {
+        int item = selector.select(ability, asked, random);
+        if (item < 0) {
+            return null;
         }
-        onTimeOut.run(); // After the timer ends, execute the onTimeOut action
-        return null;
+        asked.set(item);
+        items[index] = item;
+        return bank.getQuestion(item, index + 1);
     }
 
     @Override
-    protected void process(java.util.List<Integer> chunks) {
-        int timeLeft = chunks.get(chunks.size() - 1);
-        timerLabel.setText("Time: " + timeLeft);
+    public void result(int index, boolean correct) {
+        ability = selector.update(items[index], ability, answered++, correct);
+    }
+
+    double getAbility() {
+        return ability;
+    }
+
+    int itemAt(int index) {
+        return items[index];
+    }
+}
+// Headless quiz flow: which question is current, the score, and what happens on an answer or a timeout.
+// Holds no threads or UI, so one JVM can host as many sessions as it has memory for.
+// Every answer and timeout names the question it is for, and only one of them is ever accepted per
+// question: a late timeout or a duplicate submit finds the index has moved on and is ignored.
+// Questions are either fixed up front or drawn one at a time from a QuestionPicker.
+class QuizSession {
+    private final long id;
+    private final Question[] questions;
+    private final QuestionPicker picker; // null: questions are fixed up front
+    private int questionCount;
+    private final QuizListener listener;
+    private final QuizClock clock; // null: no time limit
+    private final AttemptLog log; // null: attempts are not recorded
+    private int currentQuestionIndex = 0;
+    private int score = 0;
+    private int secondsLeft;
+    private boolean started;
+    private TimerWheel.Timeout deadline;
+
+    public QuizSession(long id, Question[] questions, QuizListener listener) {
+        this(id, questions, listener, null);
+    }
+
+    public QuizSession(long id, Question[] questions, QuizListener listener, QuizClock clock) {
+        this(id, questions, listener, clock, null);
+    }
+
+    public QuizSession(long id, Question[] questions, QuizListener listener, QuizClock clock, AttemptLog log) {
+        this(id, questions, null, listener, clock, log);
+    }
+
+    public QuizSession(long id, int questionCount, QuestionPicker picker, QuizListener listener, QuizClock clock, AttemptLog log) {
+        this(id, new Question[questionCount], picker, listener, clock, log);
+    }
+
+    private QuizSession(long id, Question[] questions, QuestionPicker picker, QuizListener listener, QuizClock clock, AttemptLog log) {
+        this.id = id;
+        this.questions = questions;
+        this.picker = picker;
+        this.questionCount = questions.length;
+        this.listener = listener;
+        this.clock = clock;
+        this.log = log;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        record(AttemptEvent.STARTED, 0, -1, false, questionCount);
+        advance();
+    }
+
+    // Scores the answer to the given question and moves on; returns false if that question is no
+    // longer current (already answered or timed out) or the quiz is over
+    public synchronized boolean submit(int questionIndex, int option) {
+        return accept(questionIndex, option, AttemptEvent.ANSWERED);
+    }
+
+    // Time ran out on the given question: skip it without scoring
+    public synchronized boolean timeOut(int questionIndex) {
+        return accept(questionIndex, -1, AttemptEvent.TIMED_OUT);
+    }
+
+    private boolean accept(int questionIndex, int option, int event) {
+        if (!started || questionIndex != currentQuestionIndex || isFinished()) {
+            return false;
+        }
+        boolean correct = questions[currentQuestionIndex].isCorrect(option);
+        if (correct) {
+            score++;
+        }
+        if (picker != null) {
+            picker.result(questionIndex, correct);
+        }
+        record(event, questionIndex, option, correct, 0);
+        currentQuestionIndex++;
+        advance();
+        return true;
+    }
+
+    private void record(int event, int questionIndex, int option, boolean correct, int value) {
+        if (log != null) {
+            log.append(id, event, questionIndex, option, correct, value);
+        }
+    }
+
+    private void advance() {
+        if (deadline != null) {
+            deadline.cancel();
+            deadline = null;
+        }
+        if (picker != null && currentQuestionIndex < questionCount && questions[currentQuestionIndex] == null) {
+            questions[currentQuestionIndex] = picker.pick(currentQuestionIndex);
+            if (questions[currentQuestionIndex] == null) {
+                questionCount = currentQuestionIndex; // nothing left to ask
+            }
+        }
+        if (currentQuestionIndex < questionCount) {
+            record(AttemptEvent.SHOWN, currentQuestionIndex, -1, false, 0);
+            listener.onQuestion(this, questions[currentQuestionIndex], currentQuestionIndex);
+            if (clock != null) {
+                secondsLeft = clock.secondsPerQuestion();
+                schedule(currentQuestionIndex);
+            }
+        } else {
+            record(AttemptEvent.FINISHED, currentQuestionIndex, -1, false, score);
+            listener.onFinished(this, score, questionCount);
+        }
+    }
+
+    // With a countdown the wheel fires once a second; otherwise once, at the deadline
+    private void schedule(int questionIndex) {
+        if (clock.countdown()) {
+            deadline = clock.wheel().schedule(() -> clock.dispatcher().execute(() -> tick(questionIndex)), 1, TimeUnit.SECONDS);
+        } else {
+            deadline = clock.wheel().schedule(() -> clock.dispatcher().execute(() -> timeOut(questionIndex)),
+                    secondsLeft, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void tick(int questionIndex) {
+        if (questionIndex != currentQuestionIndex || isFinished()) {
+            return;
+        }
+        secondsLeft--;
+        listener.onTick(this, secondsLeft);
+        if (secondsLeft > 0) {
+            schedule(questionIndex);
+        } else {
+            timeOut(questionIndex);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+    public synchronized int getScore() {
+        return score;
+    }
+    public synchronized int getCurrentQuestionIndex() {
+        return currentQuestionIndex;
+    }
+    public synchronized boolean isFinished() {
+        return currentQuestionIndex >= questionCount;
+    }
+    public synchronized int getQuestionCount() {
+        return questionCount;
+    }
+    public synchronized Question getCurrentQuestion() {
+        return isFinished() ? null : questions[currentQuestionIndex];
+    }
+}
+// Hosts many concurrent quiz sessions keyed by id, for answers arriving through an API rather than a window.
+// All sessions share the clock's timer wheel, so an active question costs a timeout node, not a thread.
+class QuizSessionManager {
+    private final Map<Long, QuizSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final QuizClock clock;
+    private final AttemptLog log;
+
+    public QuizSessionManager() {
+        this(null, null);
+    }
+
+    public QuizSessionManager(QuizClock clock, AttemptLog log) {
+        this.clock = clock;
+        this.log = log;
+    }
+
+    // Opens and starts a session; it is forgotten again as soon as it finishes
+    public QuizSession open(Question[] questions, QuizListener listener) {
+        long id = log != null ? log.newSessionId() : nextId.getAndIncrement();
+        QuizSession session = new QuizSession(id, questions, new QuizListener() {
+            @Override
+            public void onQuestion(QuizSession s, Question question, int index) {
+                listener.onQuestion(s, question, index);
+            }
+
+            @Override
+            public void onFinished(QuizSession s, int score, int total) {
+                sessions.remove(s.getId());
+                listener.onFinished(s, score, total);
+            }
+
+            @Override
+            public void onTick(QuizSession s, int secondsLeft) {
+                listener.onTick(s, secondsLeft);
+            }
+        }, clock, log);
+        sessions.put(session.getId(), session);
+        session.start();
+        return session;
     }
 
-    public void stopTimer() {
-        this.cancel(true); // Cancel the current task and stop the timer
+    // Returns false if no such session is running or the question is no longer current
+    public boolean submit(long sessionId, int questionIndex, int option) {
+        QuizSession session = sessions.get(sessionId);
+        return session != null && session.submit(questionIndex, option);
+    }
+
+    public QuizSession get(long sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public int getActiveCount() {
+        return sessions.size();
     }
 }
+// Radio buttons for a question's options, created once and reused: a question switch only changes the
+// text of buttons whose option differs and shows or hides the tail, so large option counts cost no
+// component churn and the layout is only revalidated when the number of options changes. EDT only.
+class OptionButtonPool {
+    private final JPanel container;
+    private final ButtonGroup group = new ButtonGroup();
+    private final List<JRadioButton> buttons = new ArrayList<>();
+    private int visible;
+
+    OptionButtonPool(JPanel container) {
+        this.container = container;
+    }
+
+    void show(String[] options) {
+        while (buttons.size() < options.length) {
+            JRadioButton button = new JRadioButton();
+            button.setFont(new Font("Arial", Font.PLAIN, 16));
+            button.setBackground(new Color(245, 245, 245));
+            group.add(button);
+            container.add(button);
+            buttons.add(button);
+        }
+        for (int i = 0; i < options.length; i++) {
+            JRadioButton button = buttons.get(i);
+            if (!options[i].equals(button.getText())) {
+                button.setText(options[i]);
+            }
+            button.setVisible(true);
+        }
+        for (int i = options.length; i < visible; i++) {
+            buttons.get(i).setVisible(false);
+        }
+        if (options.length != visible) {
+            container.revalidate();
+        }
+        visible = options.length;
+        group.clearSelection();
+    }
 
-public class task4 {
+    // 0-based index of the chosen option, or -1
+    int selected() {
+        for (int i = 0; i < visible; i++) {
+            if (buttons.get(i).isSelected()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
+// Swing renderer for a QuizSession. Session events may arrive on any thread (the timer wheel, the EDT);
+// they only record the latest state and schedule a single flush, which applies it on the EDT. Several
+// events between two frames therefore cost one update, and question prompts are rendered to HTML once,
+// up front, so a question switch is a few setText calls.
+public class task4 implements QuizListener {
     private JFrame frame;
     private JPanel panel;
     private JLabel questionLabel;
-    private JRadioButton[] optionButtons;
-    private ButtonGroup buttonGroup;
+    private OptionButtonPool optionButtons;
     private JButton submitButton;
     private JLabel timerLabel;
 
-    private int score = 0;
-    private int currentQuestionIndex = 0;
-    private Question[] questions;
-    private QuizTimer currentTimer; // Store the current running timer
+    // One wheel serves every window and session in the JVM
+    static final TimerWheel TIMER_WHEEL = new TimerWheel(100, TimeUnit.MILLISECONDS, 512);
+    private static final int SECONDS_PER_QUESTION = 10;
+
+    private final Question[] questions;
+    private final String[] promptHtml; // pre-rendered per question index
+    private final QuizSession session;
+    // Latest state reported by the session, applied by flush()
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile int pendingQuestion = -1;
+    private volatile int pendingSeconds = SECONDS_PER_QUESTION;
+    private volatile String finalMessage;
+    // EDT only
+    private int displayedQuestion = -1; // index of the question on screen, so a submit cannot land on the next one
+    private int displayedSeconds = -1;
 
     public task4(Question[] questions) {
+        this(questions, null);
+    }
+
+    // With a log, the attempt is recorded and survives the window closing
+    public task4(Question[] questions, AttemptLog log) {
         this.questions = questions;
+        this.promptHtml = new String[questions.length];
+        for (int i = 0; i < questions.length; i++) {
+            promptHtml[i] = "<html><h3>" + escapeHtml(questions[i].getPrompt()) + "</h3></html>";
+        }
+        this.session = new QuizSession(log != null ? log.newSessionId() : 0, questions, this,
+                new QuizClock(TIMER_WHEEL, SECONDS_PER_QUESTION, true, Runnable::run), log);
     }
 
     public void createAndShowGUI() {
@@ -100,21 +1499,13 @@ public class task4 {
         questionLabel.setFont(new Font("Arial", Font.BOLD, 20));
         panel.add(questionLabel);
     
-        optionButtons = new JRadioButton[4];
-        buttonGroup = new ButtonGroup();
         JPanel optionsPanel = new JPanel();
         optionsPanel.setLayout(new BoxLayout(optionsPanel, BoxLayout.Y_AXIS));
         optionsPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        for (int i = 0; i < 4; i++) {
-            optionButtons[i] = new JRadioButton();
-            optionButtons[i].setFont(new Font("Arial", Font.PLAIN, 16));
-            optionButtons[i].setBackground(new Color(245, 245, 245));
-            buttonGroup.add(optionButtons[i]);
-            optionsPanel.add(optionButtons[i]);
-        }
+        optionButtons = new OptionButtonPool(optionsPanel);
         panel.add(optionsPanel);
     
-        timerLabel = new JLabel("Time: 10");
+        timerLabel = new JLabel("Time: " + SECONDS_PER_QUESTION);
         timerLabel.setFont(new Font("Arial", Font.BOLD, 20));
         timerLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         timerLabel.setForeground(Color.RED);
@@ -131,64 +1522,303 @@ public class task4 {
         frame.setSize(500, 400);
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
-    startNextQuestion();
     
         submitButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                checkAnswer();
-                currentQuestionIndex++;
-                if (currentQuestionIndex < questions.length) {
-                    startNextQuestion();
-                } else {
-                    displayFinalResults();
-                    System.exit(0); 
+                if (displayedQuestion >= 0) {
+                    session.submit(displayedQuestion, optionButtons.selected());
                 }
             }
         });
+        session.start();
     }
-    
-    
 
-    public void startNextQuestion() {
-        // Stop the previous timer if any
-        if (currentTimer != null && !currentTimer.isDone()) {
-            currentTimer.stopTimer();
+    @Override
+    public void onQuestion(QuizSession session, Question question, int index) {
+        pendingSeconds = SECONDS_PER_QUESTION;
+        pendingQuestion = index;
+        scheduleFlush();
+    }
+
+    @Override
+    public void onTick(QuizSession session, int secondsLeft) {
+        pendingSeconds = secondsLeft;
+        scheduleFlush();
+    }
+
+    @Override
+    public void onFinished(QuizSession session, int score, int total) {
+        finalMessage = "Quiz Over! Your final score is: " + score + "/" + total;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
         }
+    }
 
-        if (currentQuestionIndex < questions.length) {
-            Question currentQuestion = questions[currentQuestionIndex];
-            currentQuestion.displayQuestion(questionLabel, optionButtons);
-            buttonGroup.clearSelection();
-            // Start the timer for this question, reset to 10 seconds each time
-            currentTimer = new QuizTimer(10, timerLabel, this::onTimeOut);
-            currentTimer.execute();
+    // Applies the latest state on the EDT, touching only what changed
+    private void flush() {
+        flushScheduled.set(false);
+        if (finalMessage != null) {
+            displayedQuestion = -1;
+            JOptionPane.showMessageDialog(frame, finalMessage);
+            System.exit(0);
+        }
+        int question = pendingQuestion;
+        if (question != displayedQuestion && question >= 0) {
+            questionLabel.setText(promptHtml[question]);
+            optionButtons.show(questions[question].getOptions());
+            displayedQuestion = question;
+        }
+        int seconds = pendingSeconds;
+        if (seconds != displayedSeconds) {
+            timerLabel.setText("Time: " + seconds);
+            displayedSeconds = seconds;
         }
     }
 
-    public void onTimeOut() {
-        // Handle the action when time is up (auto skip)
-        currentQuestionIndex++;
-        if (currentQuestionIndex < questions.length) {
-            startNextQuestion();
-        } else {
-            displayFinalResults();
-            System.exit(0); 
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    // Runs the given number of headless sessions on a small pool to show that sessions cost no threads or
+    // windows of their own. Answers are random; one in ten students walks away and leaves the rest of their
+    // quiz to the shared timer wheel, and every answer is sent twice to check only one copy counts.
+    // With a log, a few sessions are then rebuilt by replay and checked against their live scores.
+    private static void simulateSessions(Question[] questions, int sessions, int threads, AttemptLog log) throws InterruptedException {
+        QuizSessionManager manager = new QuizSessionManager(new QuizClock(TIMER_WHEEL, 1, false, Runnable::run), log);
+        AtomicLong totalScore = new AtomicLong();
+        Map<Long, Integer> finalScores = new ConcurrentHashMap<>();
+        AtomicLong answered = new AtomicLong();
+        AtomicLong duplicates = new AtomicLong();
+        QuizListener scorer = new QuizListener() {
+            @Override
+            public void onQuestion(QuizSession session, Question question, int index) {
+            }
+
+            @Override
+            public void onFinished(QuizSession session, int score, int total) {
+                totalScore.addAndGet(score);
+                finalScores.put(session.getId(), score);
+            }
+        };
+        long[] ids = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = manager.open(questions, scorer).getId();
+        }
+        System.out.println("🧩 " + manager.getActiveCount() + " sessions open");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            pool.execute(() -> {
+                Random random = new Random(first);
+                for (int i = first; i < sessions; i += threads) {
+                    for (int q = 0; q < questions.length && random.nextInt(10) != 0; q++) {
+                        int option = random.nextInt(4);
+                        if (manager.submit(ids[i], q, option)) {
+                            answered.incrementAndGet();
+                        }
+                        if (manager.submit(ids[i], q, option)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        while (manager.getActiveCount() > 0) {
+            Thread.sleep(100); // abandoned questions time out on the wheel, one second each
+        }
+        long timedOut = (long) sessions * questions.length - answered.get();
+        System.out.printf("✅ %,d answers in %.2f s (%,.0f answers/s); %,d questions timed out, %d duplicate answers accepted%n",
+                answered.get(), seconds, answered.get() / seconds, timedOut, duplicates.get());
+        System.out.printf("📊 Mean score %.2f/%d%n", (double) totalScore.get() / sessions, questions.length);
+        if (log != null) {
+            int mismatches = 0;
+            for (int i = 0; i < Math.min(3, sessions); i++) {
+                AttemptReplay replay = log.replay(ids[i]);
+                if (!replay.finished() || replay.score() != finalScores.get(ids[i])) {
+                    mismatches++;
+                }
+                System.out.println("🔁 Replayed session " + ids[i] + ": score " + replay.score() + "/" + replay.questionCount()
+                        + ", answers " + Arrays.toString(replay.answers()));
+            }
+            System.out.println(mismatches == 0 ? "✅ Replays match the live sessions." : "❌ " + mismatches + " replays disagree with the live sessions.");
+            System.out.printf("🗃️ %,d events logged%n", log.getEventCount());
+        }
+    }
+
+    // Streams the whole log once through AttemptAnalytics
+    private static void analyzeLog(Path file) throws IOException {
+        try (AttemptLog log = AttemptLog.open(file, false)) {
+            AttemptAnalytics analytics = new AttemptAnalytics();
+            long start = System.nanoTime();
+            log.forEach(analytics);
+            System.out.printf("🗃️ Streamed %,d events in %.0f ms%n", log.getEventCount(), (System.nanoTime() - start) / 1e6);
+            analytics.print();
         }
     }
 
-    public void checkAnswer() {
-        Question currentQuestion = questions[currentQuestionIndex];
-        for (int i = 0; i < optionButtons.length; i++) {
-            if (optionButtons[i].isSelected() && (i + 1) == currentQuestion.getCorrectAnswerIndex()) {
-                score++;
-                break;
+    // Generates a synthetic bank of arithmetic questions spread over a few categories
+    private static void writeSampleBank(Path file, int count) throws IOException {
+        String[] categories = {"Addition", "Subtraction", "Multiplication", "Division"};
+        char[] operators = {'+', '-', '×', '÷'};
+        Random random = new Random(7);
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int category = i % categories.length;
+            int b = 2 + random.nextInt(98);
+            int a = category == 3 ? b * (1 + random.nextInt(99)) : 2 + random.nextInt(998);
+            int answer = switch (category) {
+                case 0 -> a + b;
+                case 1 -> a - b;
+                case 2 -> a * b;
+                default -> a / b;
+            };
+            int correct = 1 + random.nextInt(4);
+            String[] options = new String[4];
+            for (int o = 0; o < 4; o++) {
+                options[o] = String.valueOf(o + 1 == correct ? answer : answer + (o + 1 - correct) * (1 + random.nextInt(9)));
+            }
+            questions.add(new GeneralQuestion(categories[category], "What is " + a + " " + operators[category] + " " + b + "?",
+                    options, correct, i + 1));
+        }
+        long start = System.nanoTime();
+        QuestionBank.write(file, questions);
+        System.out.printf("📦 Wrote %,d questions to %s in %.0f ms%n", count, file, (System.nanoTime() - start) / 1e6);
+        start = System.nanoTime();
+        try (QuestionBank bank = QuestionBank.open(file)) {
+            Question[] drawn = bank.sample(Map.of("Addition", 5, "Division", 5), random);
+            System.out.printf("🎲 Opened and drew %d questions in %.2f ms, e.g. %s%n",
+                    drawn.length, (System.nanoTime() - start) / 1e6, drawn[0].getPrompt());
+        }
+    }
+
+    // Grades synthetic exam uploads: each student has an ability and each question a difficulty, and a
+    // student answers correctly with logistic probability, so harder questions show lower difficulty
+    // scores and every question should discriminate positively
+    private static void gradeSynthetic(int submissions, int questionCount) {
+        Random random = new Random(11);
+        byte[] key = new byte[questionCount];
+        double[] hardness = new double[questionCount];
+        for (int q = 0; q < questionCount; q++) {
+            key[q] = (byte) random.nextInt(4);
+            hardness[q] = random.nextGaussian();
+        }
+        SubmissionBatch batch = new SubmissionBatch(questionCount, submissions);
+        int[] options = new int[questionCount];
+        for (int s = 0; s < submissions; s++) {
+            double ability = random.nextGaussian();
+            for (int q = 0; q < questionCount; q++) {
+                if (random.nextInt(50) == 0) {
+                    options[q] = -1;
+                } else if (random.nextDouble() < 1 / (1 + Math.exp(hardness[q] - ability))) {
+                    options[q] = key[q];
+                } else {
+                    options[q] = (key[q] + 1 + random.nextInt(3)) & 3;
+                }
+            }
+            batch.add(options);
+        }
+        AnswerKey answerKey = new AnswerKey(key);
+        BatchScorer.grade(answerKey, batch); // warm-up
+        long start = System.nanoTime();
+        GradingReport report = BatchScorer.grade(answerKey, batch);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("📝 Graded %,d submissions x %d questions in %.0f ms (%,.0f submissions/s), mean %.2f%n",
+                submissions, questionCount, seconds * 1000, submissions / seconds, report.meanScore());
+        for (int q = 0; q < Math.min(5, questionCount); q++) {
+            System.out.printf("   Q%d: hardness %+.2f, difficulty %.3f, discrimination %.3f%n",
+                    q + 1, hardness[q], report.difficulty()[q], report.discrimination()[q]);
+        }
+    }
+
+    // Runs simulated candidates through adaptive sessions on a bank. Each item gets a hidden true difficulty
+    // and each candidate a hidden true ability, and answers follow the logistic model, so the estimates can
+    // be checked against the truth; then times the selector on its own.
+    private static void simulateAdaptive(Path file, int candidates, int questionCount) throws IOException {
+        try (QuestionBank bank = QuestionBank.open(file)) {
+            Random random = new Random(5);
+            double[] trueDifficulty = new double[bank.getQuestionCount()];
+            for (int i = 0; i < trueDifficulty.length; i++) {
+                trueDifficulty[i] = random.nextGaussian();
+            }
+            AdaptiveSelector selector = new AdaptiveSelector(bank.getQuestionCount());
+            QuizListener silent = new QuizListener() {
+                @Override
+                public void onQuestion(QuizSession session, Question question, int index) {
+                }
+
+                @Override
+                public void onFinished(QuizSession session, int score, int total) {
+                }
+            };
+            double[] trueAbility = new double[candidates];
+            double[] estimate = new double[candidates];
+            long start = System.nanoTime();
+            for (int c = 0; c < candidates; c++) {
+                trueAbility[c] = random.nextGaussian();
+                AdaptiveCandidate candidate = new AdaptiveCandidate(selector, bank, questionCount, random);
+                QuizSession session = new QuizSession(c + 1, questionCount, candidate, silent, null, null);
+                session.start();
+                while (!session.isFinished()) {
+                    int index = session.getCurrentQuestionIndex();
+                    Question question = session.getCurrentQuestion();
+                    double p = 1 / (1 + Math.exp(trueDifficulty[candidate.itemAt(index)] - trueAbility[c]));
+                    int correct = question.getCorrectAnswerIndex() - 1;
+                    session.submit(index, random.nextDouble() < p ? correct : (correct + 1) % question.getOptions().length);
+                }
+                estimate[c] = candidate.getAbility();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("🎯 %,d adaptive sessions of %d questions in %.2f s (%,.0f questions/s)%n",
+                    candidates, questionCount, seconds, (double) candidates * questionCount / seconds);
+            System.out.printf("   ability estimate vs truth: r = %.3f%n", correlation(estimate, trueAbility));
+            List<double[]> rated = new ArrayList<>();
+            for (int i = 0; i < trueDifficulty.length; i++) {
+                if (selector.getResponses(i) >= 20) {
+                    rated.add(new double[] {selector.getRating(i), trueDifficulty[i]});
+                }
+            }
+            System.out.printf("   item rating vs truth (%,d items with 20+ responses): r = %.3f%n", rated.size(),
+                    correlation(rated.stream().mapToDouble(r -> r[0]).toArray(), rated.stream().mapToDouble(r -> r[1]).toArray()));
+            BitSet asked = new BitSet();
+            int selections = 100_000;
+            long[] nanos = new long[selections];
+            for (int round = 0; round < 2; round++) { // the first round warms up the JIT
+                for (int i = 0; i < selections; i++) {
+                    long t = System.nanoTime();
+                    asked.set(selector.select(random.nextGaussian() * 2, asked, random));
+                    nanos[i] = System.nanoTime() - t;
+                    if (i % 50 == 49) {
+                        asked.clear();
+                    }
+                }
             }
+            Arrays.sort(nanos);
+            System.out.printf("⚡ select on %,d items: %.2f µs median, %.2f µs p99, %.1f µs max%n", bank.getQuestionCount(),
+                    nanos[selections / 2] / 1e3, nanos[selections * 99 / 100] / 1e3, nanos[selections - 1] / 1e3);
         }
     }
 
-    public void displayFinalResults() {
-        JOptionPane.showMessageDialog(frame, "Quiz Over! Your final score is: " + score + "/" + questions.length);
+    private static double correlation(double[] x, double[] y) {
+        double mx = Arrays.stream(x).average().orElse(0);
+        double my = Arrays.stream(y).average().orElse(0);
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 0; i < x.length; i++) {
+            sxy += (x[i] - mx) * (y[i] - my);
+            sxx += (x[i] - mx) * (x[i] - mx);
+            syy += (y[i] - my) * (y[i] - my);
+        }
+        return sxx == 0 || syy == 0 ? 0 : sxy / Math.sqrt(sxx * syy);
     }
 
     public static void main(String[] args) {
@@ -206,7 +1836,88 @@ public class task4 {
 
         // Create the quiz app
         Question[] questions = {q1, q2, q3, q4};
-        task4 quizApp = new task4(questions);
-        quizApp.createAndShowGUI();
+        if (args.length > 0 && args[0].equals("sessions")) {
+            int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            if (args.length < 4) {
+                try {
+                    simulateSessions(questions, sessions, threads, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            try (AttemptLog log = AttemptLog.open(Path.of(args[3]), true)) {
+                simulateSessions(questions, sessions, threads, log);
+            } catch (IOException e) {
+                System.out.println("❌ Unable to open the attempt log: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        if (args.length > 1 && args[0].equals("adaptive")) {
+            int candidates = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+            int questionCount = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+            try {
+                simulateAdaptive(Path.of(args[1]), candidates, questionCount);
+            } catch (IOException e) {
+                System.out.println("❌ Unable to open the question bank: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 1 && args[0].equals("analyze")) {
+            try {
+                analyzeLog(Path.of(args[1]));
+            } catch (IOException e) {
+                System.out.println("❌ Unable to read the attempt log: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("grade")) {
+            int submissions = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+            int questionCount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+            gradeSynthetic(submissions, questionCount);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("make-bank")) {
+            int count = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+            try {
+                writeSampleBank(Path.of(args[1]), count);
+            } catch (IOException e) {
+                System.out.println("❌ Unable to write the question bank: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 1 && args[0].equals("bank")) {
+            int perCategory = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+            try (QuestionBank bank = QuestionBank.open(Path.of(args[1]))) {
+                Map<String, Integer> draw = new LinkedHashMap<>();
+                for (String category : bank.getCategories()) {
+                    draw.put(category, perCategory);
+                }
+                questions = bank.sample(draw, new Random());
+            } catch (IOException e) {
+                System.out.println("❌ Unable to open the question bank: " + e.getMessage());
+                return;
+            }
+        }
+        AttemptLog log = null;
+        try {
+            log = AttemptLog.open(Path.of("quiz-attempts.log"), true);
+            // The window ends the JVM with System.exit, so the log is closed (and forced) on the way out
+            AttemptLog opened = log;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    opened.close();
+                } catch (IOException e) {
+                    System.out.println("⚠️ Unable to close the attempt log: " + e.getMessage());
+                }
+            }, "attempt-log-close"));
+        } catch (IOException e) {
+            System.out.println("⚠️ Attempts will not be recorded: " + e.getMessage());
+        }
+        task4 quizApp = new task4(questions, log);
+        SwingUtilities.invokeLater(quizApp::createAndShowGUI);
     }
 }
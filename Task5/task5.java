@@ -1,26 +1,148 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
 interface CourseManager {
     void addCourse(Course course);
     void removeCourse(String courseCode);
     void displayCourses();
 }
 interface StudentManager {
-    void registerCourse(String studentId, String courseCode);
-    void dropCourse(String studentId, String courseCode);
+    RegistrationOutcome registerCourse(String studentId, String courseCode);
+    RegistrationOutcome dropCourse(String studentId, String courseCode);
     void displayStudentCourses(String studentId);
 }
+enum RegistrationOutcome {
+    REGISTERED, WAITLISTED, DUPLICATE, CONFLICT, LIMIT_REACHED, WAITLIST_FULL,
+    DROPPED, LEFT_WAITLIST, NOT_REGISTERED, INVALID
+}
+// A course schedule as a bitset of half-hour slots across the week (7 days x 48 slots = 336 bits),
+// so two schedules overlap exactly when their bitsets share a bit.
+// Parses strings such as "Mon-Wed 10:00 AM", "Tue/Thu 2:00 PM-3:30 PM" or "Fri 9 AM"; days joined by
+// '-', '/' or ',' are a list, and a class without an end time is taken to last one hour.
+final class TimeSlots {
+    static final int SLOTS_PER_DAY = 48;
+    static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+    static final TimeSlots EMPTY = new TimeSlots(new long[WORDS]);
+    private static final List<String> DAYS = List.of("mon", "tue", "wed", "thu", "fri", "sat", "sun");
+    private final long[] words;
+    private TimeSlots(long[] words) {
+        this.words = words;
+    }
+    // Unrecognised schedules yield EMPTY, which never conflicts
+    static TimeSlots parse(String schedule) {
+        String[] parts = schedule.trim().split("\\s+", 2);
+        if (parts.length < 2) {
+            return EMPTY;
+        }
+        String[] times = parts[1].split("-", 2);
+        int startMinute = parseMinute(times[0]);
+        int endMinute = times.length > 1 ? parseMinute(times[1]) : startMinute + 60;
+        if (startMinute < 0 || endMinute < 0) {
+            return EMPTY;
+        }
+        // A class occupies every half hour it touches: the start rounds down, the end rounds up
+        int start = startMinute / 30;
+        int end = (endMinute + 29) / 30;
+        if (end <= start || end > SLOTS_PER_DAY) {
+            return EMPTY;
+        }
+        long[] words = new long[WORDS];
+        for (String day : parts[0].split("[-/,]")) {
+            int dayIndex = DAYS.indexOf(day.trim().toLowerCase(Locale.ROOT));
+            if (dayIndex < 0) {
+                return EMPTY;
+            }
+            for (int slot = dayIndex * SLOTS_PER_DAY + start; slot < dayIndex * SLOTS_PER_DAY + end; slot++) {
+                words[slot >>> 6] |= 1L << slot;
+            }
+        }
+        return new TimeSlots(words);
+    }
+    // "10:00 AM" -> minute of the day, or -1
+    private static int parseMinute(String time) {
+        String value = time.trim().toUpperCase(Locale.ROOT);
+        boolean pm = value.endsWith("PM");
+        boolean am = value.endsWith("AM");
+        if (pm || am) {
+            value = value.substring(0, value.length() - 2).trim();
+        }
+        try {
+            String[] hm = value.split(":");
+            int hour = Integer.parseInt(hm[0]);
+            int minute = hm.length > 1 ? Integer.parseInt(hm[1]) : 0;
+            if ((pm || am) && (hour < 1 || hour > 12)) {
+                return -1;
+            }
+            if (pm || am) {
+                hour = hour % 12 + (pm ? 12 : 0);
+            }
+            if (hour > 23 || minute < 0 || minute > 59) {
+                return -1;
+            }
+            return hour * 60 + minute;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    boolean overlaps(long[] occupancy) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((words[i] & occupancy[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    boolean overlaps(TimeSlots other) {
+        return overlaps(other.words);
+    }
+    void addTo(long[] occupancy) {
+        for (int i = 0; i < WORDS; i++) {
+            occupancy[i] |= words[i];
+        }
+    }
+    void removeFrom(long[] occupancy) {
+        for (int i = 0; i < WORDS; i++) {
+            occupancy[i] &= ~words[i];
+        }
+    }
+}
 class Course {
     private final String courseCode;
     private final String title;
     private final int capacity;
     private final String schedule;
-    private int enrolledStudents;
+    private final TimeSlots timeSlots;
+    private final AtomicInteger enrolledStudents = new AtomicInteger(); // CAS-guarded so capacity is never exceeded
+    private final BlockingQueue<Student> waitlist; // FIFO, bounded
+    private final Set<Student> waiting = ConcurrentHashMap.newKeySet(); // membership of waitlist, so nobody queues twice
+    private final Set<Student> roster = ConcurrentHashMap.newKeySet(); // reverse index of enrolled students
+    private int id = -1; // dense id assigned by CourseDatabase
+    public static final int DEFAULT_WAITLIST_CAPACITY = 50_000;
     public Course(String courseCode, String title, int capacity, String schedule) {
+        this(courseCode, title, capacity, schedule, DEFAULT_WAITLIST_CAPACITY);
+    }
+    public Course(String courseCode, String title, int capacity, String schedule, int waitlistCapacity) {
         this.courseCode = courseCode;
         this.title = title;
         this.capacity = capacity;
         this.schedule = schedule;
-        this.enrolledStudents = 0;
+        this.timeSlots = TimeSlots.parse(schedule);
+        this.waitlist = new LinkedBlockingQueue<>(waitlistCapacity);
     }
     public String getCourseCode() {
         return courseCode;
@@ -28,112 +150,572 @@ class Course {
     public String getTitle() {
         return title;
     }
+    public int getId() {
+        return id;
+    }
+    void assignId(int id) {
+        this.id = id;
+    }
+    public Set<Student> getRoster() {
+        return roster;
+    }
+    public String getSchedule() {
+        return schedule;
+    }
+    // Used when a course is decoded from the persistent store
+    void restoreEnrollment(int enrolled) {
+        enrolledStudents.set(enrolled);
+    }
+    public TimeSlots getTimeSlots() {
+        return timeSlots;
+    }
+    public int getCapacity() {
+        return capacity;
+    }
+    public int getEnrolledStudents() {
+        return enrolledStudents.get();
+    }
     public boolean enrollStudent() {
-        if (enrolledStudents < capacity) {
-            enrolledStudents++;
-            return true;
-        }
-        return false;
+        int enrolled;
+        do {
+            enrolled = enrolledStudents.get();
+            if (enrolled >= capacity) {
+                return false;
+            }
+        } while (!enrolledStudents.compareAndSet(enrolled, enrolled + 1));
+        return true;
     }
     public void dropStudent() {
-        if (enrolledStudents > 0) {
-            enrolledStudents--;
+        int enrolled;
+        do {
+            enrolled = enrolledStudents.get();
+            if (enrolled == 0) {
+                return;
+            }
+        } while (!enrolledStudents.compareAndSet(enrolled, enrolled - 1));
+    }
+    // Queues a student for the next free seat; returns their position, 0 if they are already queued,
+    // or -1 if the waitlist is full
+    public int joinWaitlist(Student student) {
+        if (!waiting.add(student)) {
+            return 0;
+        }
+        if (!waitlist.offer(student)) {
+            waiting.remove(student);
+            return -1;
+        }
+        return waitlist.size();
+    }
+    public boolean leaveWaitlist(Student student) {
+        if (!waitlist.remove(student)) {
+            return false;
+        }
+        waiting.remove(student);
+        return true;
+    }
+    private Student pollWaitlist() {
+        Student head = waitlist.poll();
+        if (head != null) {
+            waiting.remove(head);
+        }
+        return head;
+    }
+    public int getWaitlistSize() {
+        return waitlist.size();
+    }
+    // Frees a seat. While students are waiting the seat passes straight to the head of the waitlist and
+    // the enrolled count never dips, so no newcomer can slip in ahead; returns the promoted student, or null.
+    public Student releaseSeat() {
+        Student promoted = pollWaitlist();
+        if (promoted == null) {
+            dropStudent();
+            promoted = promoteWaiting(); // someone may have queued while the seat was being freed
+        }
+        return promoted;
+    }
+    // Moves the head of the waitlist into a free seat, if there is both
+    public Student promoteWaiting() {
+        if (waitlist.isEmpty() || !enrollStudent()) {
+            return null;
         }
+        Student promoted = pollWaitlist();
+        if (promoted == null) {
+            dropStudent();
+        }
+        return promoted;
     }
     @Override
     public String toString() {
-        return courseCode + " - " + title + " (" + (capacity - enrolledStudents) + " slots available, " + schedule + ")";
+        int waiting = waitlist.size();
+        return courseCode + " - " + title + " (" + (capacity - enrolledStudents.get()) + " slots available, "
+                + (waiting > 0 ? waiting + " waitlisted, " : "") + schedule + ")";
     }
 }
 class Student {
-    private final String studentId;
+    private final long id;
     private final String name;
-    private final List<Course> registeredCourses;
-    public Student(String studentId, String name) {
-        this.studentId = studentId;
+    // Dense ids of the registered courses, sorted; a student holds at most MAX_REGISTRATIONS of them
+    private int[] registeredCourses = new int[4];
+    private int registeredCount;
+    private final long[] occupancy = new long[TimeSlots.WORDS]; // union of registered courses' time slots
+    public Student(long id, String name) {
+        this.id = id;
         this.name = name;
-        this.registeredCourses = new ArrayList<>();
     }
+    public long getId() {
+        return id;
+    }
+    // Display form, e.g. "S101"; only built at the presentation edge
     public String getStudentId() {
-        return studentId;
+        return formatId(id);
+    }
+    static String formatId(long id) {
+        return "S" + id;
+    }
+    // Parses the display form back to the numeric id, or returns -1
+    static long parseId(String studentId) {
+        if (studentId == null || studentId.length() < 2 || studentId.length() > 19 || studentId.charAt(0) != 'S') {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 1; i < studentId.length(); i++) {
+            char c = studentId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
     }
     public String getName() {
         return name;
     }
-    public void registerCourse(Course course) {
-        registeredCourses.add(course);
+    public synchronized int getRegisteredCount() {
+        return registeredCount;
+    }
+    public synchronized boolean isRegistered(Course course) {
+        return Arrays.binarySearch(registeredCourses, 0, registeredCount, course.getId()) >= 0;
+    }
+    // Returns false if the student already holds the course
+    public synchronized boolean registerCourse(Course course) {
+        int at = Arrays.binarySearch(registeredCourses, 0, registeredCount, course.getId());
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        if (registeredCount == registeredCourses.length) {
+            registeredCourses = Arrays.copyOf(registeredCourses, registeredCount * 2);
+        }
+        System.arraycopy(registeredCourses, at, registeredCourses, at + 1, registeredCount - at);
+        registeredCourses[at] = course.getId();
+        registeredCount++;
+        course.getTimeSlots().addTo(occupancy);
+        course.getRoster().add(this);
+        return true;
+    }
+    // Registers the course unless the student already holds it, it clashes with their timetable or they
+    // already hold maxCourses; all three are checked under the student's lock
+    public synchronized boolean registerIfFree(Course course, int maxCourses) {
+        return registeredCount < maxCourses && !hasConflict(course) && registerCourse(course);
+    }
+    public synchronized boolean dropCourse(Course course) {
+        int at = Arrays.binarySearch(registeredCourses, 0, registeredCount, course.getId());
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(registeredCourses, at + 1, registeredCourses, at, registeredCount - at - 1);
+        registeredCount--;
+        course.getTimeSlots().removeFrom(occupancy); // registered courses never overlap, so their bits are disjoint
+        course.getRoster().remove(this);
+        return true;
+    }
+    public synchronized boolean hasConflict(Course course) {
+        return course.getTimeSlots().overlaps(occupancy);
     }
-    public void dropCourse(Course course) {
-        registeredCourses.remove(course);
+    // Only called once a conflict is known, to name the clashing course
+    public synchronized Course findConflict(Course course) {
+        for (Course registered : getRegisteredCourses()) {
+            if (registered.getTimeSlots().overlaps(course.getTimeSlots())) {
+                return registered;
+            }
+        }
+        return null;
     }
-    public List<Course> getRegisteredCourses() {
-        return registeredCourses;
+    public synchronized List<Course> getRegisteredCourses() {
+        List<Course> courses = new ArrayList<>(registeredCount);
+        for (int i = 0; i < registeredCount; i++) {
+            Course course = task5.courseDatabase.getCourseById(registeredCourses[i]);
+            if (course != null) {
+                courses.add(course);
+            }
+        }
+        return courses;
     }
     @Override
     public String toString() {
-        return studentId + " - " + name;
+        return getStudentId() + " - " + name;
     }
 }
 class CourseDatabase implements CourseManager {
-    private final Map<String, Course> courses = new HashMap<>();
+    private final Map<String, Course> courses = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCourseId = new AtomicInteger();
+    // Dense id -> course. Grown under the monitor; readers only look up ids of courses they already
+    // obtained through the map, which publishes the slot.
+    private volatile Course[] coursesById = new Course[64];
+    private RegistrationStore store; // when set, the store is the catalog and the maps are a lazy cache
+    public void attachStore(RegistrationStore store) {
+        this.store = store;
+    }
     @Override
     public void addCourse(Course course) {
-        courses.put(course.getCourseCode(), course);
+        int id = store != null ? store.addCourse(course) : nextCourseId.getAndIncrement();
+        course.assignId(id);
+        cache(course);
+    }
+    private Course cache(Course course) {
+        Course existing = courses.putIfAbsent(course.getCourseCode(), course);
+        if (existing != null) {
+            if (existing.getId() == course.getId()) {
+                return existing; // another thread loaded the same record first
+            }
+            courses.put(course.getCourseCode(), course); // code re-added as a new course
+        }
+        synchronized (this) {
+            if (course.getId() >= coursesById.length) {
+                coursesById = Arrays.copyOf(coursesById, Math.max(course.getId() + 1, coursesById.length * 2));
+            }
+            coursesById[course.getId()] = course;
+        }
+        return course;
     }
     @Override
     public void removeCourse(String courseCode) {
-        courses.remove(courseCode);
+        Course course = getCourse(courseCode);
+        if (course != null) {
+            courses.remove(courseCode);
+            synchronized (this) {
+                coursesById[course.getId()] = null;
+            }
+            // Unregister everyone enrolled so no timetable keeps the course's slots or its registration
+            for (Student student : course.getRoster()) {
+                if (student.dropCourse(course) && store != null) {
+                    store.recordRegistration(student.getId(), course.getId(), false);
+                }
+            }
+            if (store != null) {
+                store.removeCourse(course.getId());
+            }
+        }
     }
     @Override
     public void displayCourses() {
         System.out.println("\n📚 Available Courses:");
+        if (store != null) {
+            for (int id = 0; id < store.getCourseCount(); id++) {
+                Course course = getCourseById(id);
+                if (course != null) {
+                    System.out.println(course);
+                }
+            }
+            return;
+        }
         courses.values().forEach(System.out::println);
     }
+    public void displayRoster(String courseCode) {
+        Course course = getCourse(courseCode);
+        if (course == null) {
+            System.out.println("❌ Invalid course code.");
+            return;
+        }
+        System.out.println("\n👥 Students enrolled in " + course.getCourseCode() + ":");
+        course.getRoster().forEach(System.out::println);
+    }
     public Course getCourse(String courseCode) {
-        return courses.get(courseCode);
+        Course course = courses.get(courseCode);
+        if (course == null && store != null) {
+            int id = store.findCourseId(courseCode);
+            Course loaded = id >= 0 ? store.loadCourse(id) : null;
+            course = loaded != null ? cache(loaded) : null;
+        }
+        return course;
+    }
+    public Course getCourseById(int id) {
+        Course[] byId = coursesById;
+        Course course = id >= 0 && id < byId.length ? byId[id] : null;
+        if (course == null && store != null) {
+            Course loaded = store.loadCourse(id);
+            course = loaded != null ? cache(loaded) : null;
+        }
+        return course;
+    }
+}
+// Thread-safe student ID allocator. Bulk onboarding reserves a block of ids per thread from the shared source
+// and hands them out locally, touching shared state once per BLOCK_SIZE students; one-off sign-ups reserve a
+// single id, so an interactive session does not burn a block. Ids left in a thread's block when the process
+// exits are never issued, so ids are unique but may have gaps.
+class IdAllocator {
+    static final int BLOCK_SIZE = 1024;
+    private final LongFunction<Block> reserve; // requested block size -> the block actually granted
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]); // {next, end}
+    // Ids [first, end); the source may grant fewer than were asked for, or none once it is exhausted
+    record Block(long first, long end) {
+    }
+    IdAllocator(LongFunction<Block> reserve) {
+        this.reserve = reserve;
+    }
+    static IdAllocator startingAt(long firstId) {
+        AtomicLong next = new AtomicLong(firstId);
+        return new IdAllocator(count -> {
+            long first = next.getAndAdd(count);
+            return new Block(first, first + count);
+        });
+    }
+    // Reserves blockSize ids when the thread has none left over; throws IllegalStateException once the
+    // source has no ids left
+    long next(int blockSize) {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            Block granted = reserve.apply(blockSize);
+            if (granted.end() <= granted.first()) {
+                throw new IllegalStateException("No student ids left");
+            }
+            range[0] = granted.first();
+            range[1] = granted.end();
+        }
+        return range[0]++;
+    }
+}
+// Primitive long-keyed student index. Ids are dense and small, so a lazily grown two-level page table
+// replaces a boxed-key map: lookups are two array loads and inserts one CAS.
+class StudentIndex {
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private final AtomicReferenceArray<AtomicReferenceArray<Student>> pages = new AtomicReferenceArray<>(1 << 16);
+    Student get(long id) {
+        AtomicReferenceArray<Student> page = page(id, false);
+        return page == null ? null : page.get((int) (id & (PAGE_SIZE - 1)));
+    }
+    // Returns the student already indexed under the id, or null after indexing the given one
+    Student putIfAbsent(Student student) {
+        AtomicReferenceArray<Student> page = page(student.getId(), true);
+        int slot = (int) (student.getId() & (PAGE_SIZE - 1));
+        return page.compareAndSet(slot, null, student) ? null : page.get(slot);
+    }
+    private AtomicReferenceArray<Student> page(long id, boolean create) {
+        long pageNumber = id >>> PAGE_BITS;
+        if (id < 0 || pageNumber >= pages.length()) {
+            if (create) {
+                throw new IllegalArgumentException("Student id out of range: " + id);
+            }
+            return null;
+        }
+        AtomicReferenceArray<Student> page = pages.get((int) pageNumber);
+        if (page == null && create) {
+            pages.compareAndSet((int) pageNumber, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get((int) pageNumber);
+        }
+        return page;
     }
 }
 class StudentDatabase implements StudentManager {
-    private final Map<String, Student> students = new HashMap<>();
-    private int studentCounter = 1; // Auto-generate Student IDs
+    private final StudentIndex students = new StudentIndex();
+    private IdAllocator idAllocator = IdAllocator.startingAt(RegistrationStore.FIRST_STUDENT_ID);
+    private RegistrationStore store; // when set, students and registrations are persisted and loaded lazily
+    private volatile boolean quiet; // suppresses per-request console messages, e.g. under a load harness
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+    private void say(String message) {
+        if (!quiet) {
+            System.out.println(message);
+        }
+    }
+    public void attachStore(RegistrationStore store) {
+        this.store = store;
+        this.idAllocator = new IdAllocator(store::reserveStudentIds);
+    }
+    // Returns the new student's ID, or null if no more students can be registered
     public String addStudent(String name) {
-        String studentId = "S" + (100 + studentCounter++);
-        Student student = new Student(studentId, name);
-        students.put(studentId, student);
+        String studentId;
+        try {
+            studentId = Student.formatId(onboard(name, 1));
+        } catch (IllegalStateException e) {
+            System.out.println("❌ Registration is closed: " + e.getMessage() + ".");
+            return null;
+        }
         System.out.println("✅ Welcome, " + name + "! Your Student ID: " + studentId);
         return studentId;
     }
+    // Creates a student without any console output and returns the numeric id, reserving ids in blocks
+    // for bulk onboarding; throws IllegalStateException once every student id has been issued
+    public long onboard(String name) {
+        return onboard(name, IdAllocator.BLOCK_SIZE);
+    }
+    private long onboard(String name, int idBlockSize) {
+        long id = idAllocator.next(idBlockSize);
+        if (store != null) {
+            store.addStudent(id, name);
+        }
+        students.putIfAbsent(new Student(id, name));
+        return id;
+    }
+    public boolean hasStudent(String studentId) {
+        return findStudent(studentId) != null;
+    }
+    private Student findStudent(String studentId) {
+        long id = Student.parseId(studentId);
+        return id < 0 ? null : findStudent(id);
+    }
+    private Student findStudent(long id) {
+        Student student = students.get(id);
+        if (student != null || store == null) {
+            return student;
+        }
+        String name = store.loadStudentName(id);
+        if (name == null) {
+            return null;
+        }
+        // Only the instance that wins the index slot restores its courses, so a losing copy never lands in a
+        // course roster. Its monitor is held from before publication until the restore is done, and every
+        // Student method is synchronized, so no other thread sees it half loaded.
+        Student loaded = new Student(id, name);
+        synchronized (loaded) {
+            Student existing = students.putIfAbsent(loaded);
+            if (existing != null) {
+                return existing;
+            }
+            for (int courseId : store.loadStudentCourses(id)) {
+                Course course = task5.courseDatabase.getCourseById(courseId);
+                if (course != null) {
+                    loaded.registerCourse(course);
+                } else {
+                    store.recordRegistration(id, courseId, false); // the course was removed while this student was unloaded
+                }
+            }
+        }
+        return loaded;
+    }
+    private void persist(Student student, Course course, boolean registered) {
+        if (store != null) {
+            store.recordRegistration(student.getId(), course.getId(), registered);
+        }
+    }
     @Override
-    public void registerCourse(String studentId, String courseCode) {
-        Student student = students.get(studentId);
+    public RegistrationOutcome registerCourse(String studentId, String courseCode) {
+        Student student = findStudent(studentId);
         Course course = task5.courseDatabase.getCourse(courseCode);
 
         if (student != null && course != null) {
-            if (course.enrollStudent()) {
-                student.registerCourse(course);
-                System.out.println("✅ Course " + courseCode + " registered successfully for " + student.getName());
-            } else {
-                System.out.println("❌ Course " + courseCode + " is full.");
+            synchronized (student) {
+                if (student.isRegistered(course)) {
+                    say("❌ " + student.getName() + " is already registered for " + courseCode + ".");
+                    return RegistrationOutcome.DUPLICATE;
+                }
+                if (student.hasConflict(course)) {
+                    Course clash = student.findConflict(course);
+                    say("❌ Course " + courseCode + " clashes with " + (clash != null ? clash.getCourseCode() : "another course") + " in your timetable.");
+                    return RegistrationOutcome.CONFLICT;
+                }
+                if (student.getRegisteredCount() >= RegistrationStore.MAX_REGISTRATIONS) {
+                    say("❌ " + student.getName() + " has reached the limit of " + RegistrationStore.MAX_REGISTRATIONS + " courses.");
+                    return RegistrationOutcome.LIMIT_REACHED;
+                }
+                if (course.enrollStudent()) {
+                    student.registerCourse(course);
+                    persist(student, course, true);
+                    say("✅ Course " + courseCode + " registered successfully for " + student.getName());
+                    return RegistrationOutcome.REGISTERED;
+                }
             }
-        } else {
-            System.out.println("❌ Invalid student ID or course code.");
+            int position = course.joinWaitlist(student);
+            if (position == 0) {
+                say("❌ " + student.getName() + " is already on the waitlist for " + courseCode + ".");
+                return RegistrationOutcome.DUPLICATE;
+            }
+            if (position < 0) {
+                say("❌ Course " + courseCode + " is full and its waitlist is closed.");
+                return RegistrationOutcome.WAITLIST_FULL;
+            }
+            say("⏳ Course " + courseCode + " is full. " + student.getName() + " is #" + position + " on the waitlist.");
+            promote(course.promoteWaiting(), course); // a seat may have been freed in the meantime
+            return RegistrationOutcome.WAITLISTED;
         }
+        say("❌ Invalid student ID or course code.");
+        return RegistrationOutcome.INVALID;
     }
     @Override
-    public void dropCourse(String studentId, String courseCode) {
-        Student student = students.get(studentId);
+    public RegistrationOutcome dropCourse(String studentId, String courseCode) {
+        Student student = findStudent(studentId);
         Course course = task5.courseDatabase.getCourse(courseCode);
         if (student != null && course != null) {
-            student.dropCourse(course);
-            course.dropStudent();
-            System.out.println("✅ Course " + courseCode + " dropped successfully for " + student.getName());
-        } else {
-            System.out.println("❌ Invalid student ID or course code.");
+            if (student.dropCourse(course)) {
+                persist(student, course, false);
+                say("✅ Course " + courseCode + " dropped successfully for " + student.getName());
+                promote(course.releaseSeat(), course);
+                return RegistrationOutcome.DROPPED;
+            }
+            if (course.leaveWaitlist(student)) {
+                say("✅ " + student.getName() + " left the waitlist for " + courseCode + ".");
+                return RegistrationOutcome.LEFT_WAITLIST;
+            }
+            say("❌ " + student.getName() + " is not registered for " + courseCode + ".");
+            return RegistrationOutcome.NOT_REGISTERED;
         }
+        say("❌ Invalid student ID or course code.");
+        return RegistrationOutcome.INVALID;
+    }
+    // Seats the promoted student; if their timetable has since filled that slot, the seat moves down the waitlist
+    private void promote(Student student, Course course) {
+        while (student != null) {
+            if (student.registerIfFree(course, RegistrationStore.MAX_REGISTRATIONS)) {
+                persist(student, course, true);
+                say("🎉 " + student.getName() + " was promoted from the waitlist into " + course.getCourseCode() + ".");
+                return;
+            }
+            say("⏭️ " + student.getName() + " skipped on the " + course.getCourseCode() + " waitlist (already registered, timetable clash or course limit).");
+            student = course.releaseSeat();
+        }
+    }
+    // Pre-registers a whole cohort (student ID -> course codes) in time linear in the number of requests:
+    // each request costs one bitset check against the student's running occupancy mask.
+    // Returns the number of registrations that clashed and were skipped.
+    public int preRegister(Map<String, List<String>> requests) {
+        int registered = 0;
+        int conflicts = 0;
+        int rejected = 0;
+        for (Map.Entry<String, List<String>> request : requests.entrySet()) {
+            Student student = findStudent(request.getKey());
+            if (student == null) {
+                rejected += request.getValue().size();
+                continue;
+            }
+            for (String courseCode : request.getValue()) {
+                Course course = task5.courseDatabase.getCourse(courseCode);
+                if (course == null) {
+                    rejected++;
+                    continue;
+                }
+                synchronized (student) {
+                    if (student.isRegistered(course) || student.getRegisteredCount() >= RegistrationStore.MAX_REGISTRATIONS) {
+                        rejected++;
+                    } else if (student.hasConflict(course)) {
+                        conflicts++;
+                    } else if (course.enrollStudent()) {
+                        student.registerCourse(course);
+                        persist(student, course, true);
+                        registered++;
+                    } else {
+                        rejected++;
+                    }
+                }
+            }
+        }
+        System.out.println("📋 Cohort pre-registration: " + registered + " registered, " + conflicts + " timetable clashes, " + rejected + " rejected.");
+        return conflicts;
     }
     @Override
     public void displayStudentCourses(String studentId) {
-        Student student = students.get(studentId);
+        Student student = findStudent(studentId);
         if (student != null) {
             System.out.println("\n📜 Registered Courses for " + student.getName() + ":");
             student.getRegisteredCourses().forEach(System.out::println);
@@ -142,6 +724,325 @@ class StudentDatabase implements StudentManager {
         }
     }
 }
+// Persistent catalog and enrollment store: one memory-mapped file of fixed-size records.
+// Courses live at their dense id, students at (numeric id - FIRST_STUDENT_ID), and an open-addressing
+// hash index maps course codes to ids. Nothing is loaded at startup; records are decoded on first use
+// and the OS pages them in lazily, so opening a large catalog costs the same as opening a small one.
+//
+// Crash consistency: new courses become visible only when the course count is bumped after the record
+// and index slot are written; new students only when their present flag is written last. A registration
+// change touches two records, so it is first written to an intent slot in the header, applied, then
+// cleared; open() redoes every leftover intent, which is idempotent.
+//
+// Locking: the course catalog (count, index, codes) is guarded by the store's monitor, student ids by
+// idLock, and student records and enrollment counts by striped locks. A registration holds its student's
+// stripe, which owns one intent slot, and then its course's stripe, so registrations for different
+// students and courses force their records in parallel, and no two pending intents share a record.
+class RegistrationStore implements AutoCloseable {
+    static final int FIRST_STUDENT_ID = 101;
+    static final int MAX_REGISTRATIONS = 15;
+    private static final int MAGIC = 0x52454753; // "REGS"
+    private static final int HEADER_SIZE = 4096;
+    private static final int RECORD_SIZE = 128;
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_MAX_COURSES = 4;
+    private static final int H_MAX_STUDENTS = 8;
+    private static final int H_COURSE_COUNT = 12;
+    private static final int H_INDEX_SLOTS = 16;
+    private static final int H_NEXT_STUDENT_ID = 24; // long
+    private static final int H_INTENTS = 64; // STRIPES intent slots of INTENT_SIZE bytes
+    private static final int STRIPES = 64;
+    private static final int INTENT_SIZE = 32;
+    // Intent slot fields
+    private static final int I_STATE = 0;
+    private static final int I_STUDENT = 4;
+    private static final int I_COURSE = 8;
+    private static final int I_REGISTERED = 12;
+    private static final int I_ENROLLED = 16;
+    // Course record fields
+    private static final int C_CODE = 0;        // length byte + 15 bytes
+    private static final int C_TITLE = 16;      // length byte + 63 bytes
+    private static final int C_SCHEDULE = 80;   // length byte + 31 bytes
+    private static final int C_CAPACITY = 112;
+    private static final int C_ENROLLED = 116;
+    private static final int C_REMOVED = 120;
+    // Student record fields
+    private static final int S_PRESENT = 0;
+    private static final int S_NAME = 4;        // length byte + 63 bytes
+    private static final int S_COURSES = 68;    // MAX_REGISTRATIONS ints, -1 when free
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int maxCourses;
+    private final int maxStudents;
+    private final int indexSlots;
+    private final long indexOffset;
+    private final long studentsOffset;
+    private final boolean durable;
+    private final Object idLock = new Object();
+    private final Object[] studentLocks = newLocks(); // by student record, each owning one intent slot
+    private final Object[] courseLocks = newLocks(); // by course record, for its enrolled count
+    private RegistrationStore(FileChannel channel, MappedByteBuffer buffer, boolean durable) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.durable = durable;
+        this.maxCourses = buffer.getInt(H_MAX_COURSES);
+        this.maxStudents = buffer.getInt(H_MAX_STUDENTS);
+        this.indexSlots = buffer.getInt(H_INDEX_SLOTS);
+        this.indexOffset = HEADER_SIZE + (long) maxCourses * RECORD_SIZE;
+        this.studentsOffset = indexOffset + (long) indexSlots * 4;
+    }
+    // Opens the store, creating it with the given capacities if the file does not exist yet
+    static RegistrationStore open(Path file, int maxCourses, int maxStudents, boolean durable) throws IOException {
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!exists) {
+            int slots = Integer.highestOneBit(Math.max(2, maxCourses * 2 - 1)) << 1;
+            long size = HEADER_SIZE + (long) maxCourses * RECORD_SIZE + (long) slots * 4 + (long) maxStudents * RECORD_SIZE;
+            if (size > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IllegalArgumentException("Store capacity too large for a single mapping");
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(new byte[] {0}), size - 1); // sparse file of the final size
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(H_MAX_COURSES, maxCourses);
+            buffer.putInt(H_MAX_STUDENTS, maxStudents);
+            buffer.putInt(H_INDEX_SLOTS, slots);
+            buffer.putLong(H_NEXT_STUDENT_ID, FIRST_STUDENT_ID);
+            buffer.putInt(H_MAGIC, MAGIC); // written last: the file is valid from here on
+            buffer.force(0, HEADER_SIZE); // the rest of the sparse file reads as zeros already
+            return new RegistrationStore(channel, buffer, durable);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.getInt(H_MAGIC) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a registration store: " + file);
+        }
+        RegistrationStore store = new RegistrationStore(channel, buffer, durable);
+        store.redoIntent();
+        return store;
+    }
+    public synchronized int getCourseCount() {
+        return buffer.getInt(H_COURSE_COUNT);
+    }
+    // Appends a course record and returns its id
+    public synchronized int addCourse(Course course) {
+        int id = buffer.getInt(H_COURSE_COUNT);
+        if (id >= maxCourses) {
+            throw new IllegalStateException("Course catalog is full");
+        }
+        if (findCourseId(course.getCourseCode()) >= 0) {
+            throw new IllegalArgumentException("Duplicate course code " + course.getCourseCode());
+        }
+        int record = courseOffset(id);
+        putString(record + C_CODE, 16, course.getCourseCode());
+        putString(record + C_TITLE, 64, course.getTitle());
+        putString(record + C_SCHEDULE, 32, course.getSchedule());
+        buffer.putInt(record + C_CAPACITY, course.getCapacity());
+        buffer.putInt(record + C_ENROLLED, course.getEnrolledStudents());
+        buffer.put(record + C_REMOVED, (byte) 0);
+        int slot = hash(course.getCourseCode());
+        while (buffer.getInt(indexSlotOffset(slot)) != 0) {
+            slot = (slot + 1) & (indexSlots - 1);
+        }
+        buffer.putInt(indexSlotOffset(slot), id + 1);
+        sync(record, RECORD_SIZE);
+        sync(indexSlotOffset(slot), 4);
+        buffer.putInt(H_COURSE_COUNT, id + 1); // commit point
+        sync(H_COURSE_COUNT, 4);
+        return id;
+    }
+    public synchronized void removeCourse(int id) {
+        buffer.put(courseOffset(id) + C_REMOVED, (byte) 1);
+        sync(courseOffset(id) + C_REMOVED, 1);
+    }
+    // Removed courses keep their index slot, so the probe walks past them; a code can be added again later
+    public synchronized int findCourseId(String courseCode) {
+        int count = buffer.getInt(H_COURSE_COUNT);
+        for (int slot = hash(courseCode); ; slot = (slot + 1) & (indexSlots - 1)) {
+            int entry = buffer.getInt(indexSlotOffset(slot));
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            if (id < count && buffer.get(courseOffset(id) + C_REMOVED) == 0
+                    && courseCode.equals(getString(courseOffset(id) + C_CODE))) {
+                return id;
+            }
+        }
+    }
+    // Decodes a course record, or returns null for an unknown or removed id
+    public synchronized Course loadCourse(int id) {
+        if (id < 0 || id >= buffer.getInt(H_COURSE_COUNT)) {
+            return null;
+        }
+        int record = courseOffset(id);
+        if (buffer.get(record + C_REMOVED) != 0) {
+            return null;
+        }
+        Course course = new Course(getString(record + C_CODE), getString(record + C_TITLE),
+                buffer.getInt(record + C_CAPACITY), getString(record + C_SCHEDULE));
+        course.assignId(id);
+        synchronized (courseLocks[id & (STRIPES - 1)]) {
+            course.restoreEnrollment(buffer.getInt(record + C_ENROLLED));
+        }
+        return course;
+    }
+    // Reserves up to count student ids; the high-water mark is persisted first, so an id is never issued
+    // twice even across crashes. The last block is cut short at capacity, and once the store is full the
+    // block is empty.
+    public IdAllocator.Block reserveStudentIds(long count) {
+        synchronized (idLock) {
+            long id = buffer.getLong(H_NEXT_STUDENT_ID);
+            long end = Math.min(id + count, FIRST_STUDENT_ID + (long) maxStudents);
+            if (end <= id) {
+                return new IdAllocator.Block(id, id);
+            }
+            buffer.putLong(H_NEXT_STUDENT_ID, end);
+            sync(H_NEXT_STUDENT_ID, 8);
+            return new IdAllocator.Block(id, end);
+        }
+    }
+    public void addStudent(long id, String name) {
+        if (id < FIRST_STUDENT_ID || id - FIRST_STUDENT_ID >= maxStudents) {
+            throw new IllegalStateException("Student store is full");
+        }
+        synchronized (studentLock(id)) {
+            int record = studentOffset(id);
+            putString(record + S_NAME, 64, name);
+            for (int i = 0; i < MAX_REGISTRATIONS; i++) {
+                buffer.putInt(record + S_COURSES + i * 4, -1);
+            }
+            sync(record, RECORD_SIZE);
+            buffer.put(record + S_PRESENT, (byte) 1); // commit point
+            sync(record + S_PRESENT, 1);
+        }
+    }
+    public String loadStudentName(long id) {
+        if (id < FIRST_STUDENT_ID || id - FIRST_STUDENT_ID >= maxStudents) {
+            return null;
+        }
+        synchronized (studentLock(id)) {
+            int record = studentOffset(id);
+            return buffer.get(record + S_PRESENT) != 0 ? getString(record + S_NAME) : null;
+        }
+    }
+    public int[] loadStudentCourses(long id) {
+        int[] courses = new int[MAX_REGISTRATIONS];
+        int count = 0;
+        synchronized (studentLock(id)) {
+            int record = studentOffset(id);
+            for (int i = 0; i < MAX_REGISTRATIONS; i++) {
+                int courseId = buffer.getInt(record + S_COURSES + i * 4);
+                if (courseId >= 0) {
+                    courses[count++] = courseId;
+                }
+            }
+        }
+        return Arrays.copyOf(courses, count);
+    }
+    public void recordRegistration(long studentId, int courseId, boolean registered) {
+        int stripe = (int) (studentId - FIRST_STUDENT_ID) & (STRIPES - 1);
+        int intent = H_INTENTS + stripe * INTENT_SIZE;
+        synchronized (studentLocks[stripe]) {
+            synchronized (courseLocks[courseId & (STRIPES - 1)]) {
+                int enrolled = buffer.getInt(courseOffset(courseId) + C_ENROLLED) + (registered ? 1 : -1);
+                buffer.putInt(intent + I_STUDENT, (int) (studentId - FIRST_STUDENT_ID));
+                buffer.putInt(intent + I_COURSE, courseId);
+                buffer.putInt(intent + I_REGISTERED, registered ? 1 : 0);
+                buffer.putInt(intent + I_ENROLLED, Math.max(0, enrolled));
+                sync(intent + I_STUDENT, I_ENROLLED + 4 - I_STUDENT);
+                buffer.putInt(intent + I_STATE, 1);
+                sync(intent + I_STATE, 4);
+                applyIntent(intent);
+                buffer.putInt(intent + I_STATE, 0);
+                sync(intent + I_STATE, 4);
+            }
+        }
+    }
+    private void redoIntent() {
+        for (int intent = H_INTENTS; intent < H_INTENTS + STRIPES * INTENT_SIZE; intent += INTENT_SIZE) {
+            if (buffer.getInt(intent + I_STATE) == 1) {
+                applyIntent(intent);
+                // Recovery flushes the applied records even when the store is not durable, before the intent goes
+                buffer.force(studentOffset(buffer.getInt(intent + I_STUDENT) + (long) FIRST_STUDENT_ID) + S_COURSES, MAX_REGISTRATIONS * 4);
+                buffer.force(courseOffset(buffer.getInt(intent + I_COURSE)) + C_ENROLLED, 4);
+                buffer.putInt(intent + I_STATE, 0);
+                buffer.force(intent + I_STATE, 4);
+            }
+        }
+    }
+    // Idempotent: sets the student's slot and the course's enrolled count to their target values
+    private void applyIntent(int intent) {
+        int record = studentOffset(buffer.getInt(intent + I_STUDENT) + (long) FIRST_STUDENT_ID);
+        int courseId = buffer.getInt(intent + I_COURSE);
+        boolean registered = buffer.getInt(intent + I_REGISTERED) == 1;
+        int free = -1;
+        int held = -1;
+        for (int i = 0; i < MAX_REGISTRATIONS; i++) {
+            int value = buffer.getInt(record + S_COURSES + i * 4);
+            if (value == courseId) {
+                held = i;
+            } else if (value < 0 && free < 0) {
+                free = i;
+            }
+        }
+        if (registered && held < 0 && free >= 0) {
+            buffer.putInt(record + S_COURSES + free * 4, courseId);
+        } else if (!registered && held >= 0) {
+            buffer.putInt(record + S_COURSES + held * 4, -1);
+        }
+        buffer.putInt(courseOffset(courseId) + C_ENROLLED, buffer.getInt(intent + I_ENROLLED));
+        sync(record + S_COURSES, MAX_REGISTRATIONS * 4);
+        sync(courseOffset(courseId) + C_ENROLLED, 4);
+    }
+    private static Object[] newLocks() {
+        Object[] locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+    private Object studentLock(long id) {
+        return studentLocks[(int) (id - FIRST_STUDENT_ID) & (STRIPES - 1)];
+    }
+    private int courseOffset(int id) {
+        return HEADER_SIZE + id * RECORD_SIZE;
+    }
+    private int indexSlotOffset(int slot) {
+        return (int) (indexOffset + slot * 4L);
+    }
+    private int studentOffset(long id) {
+        return (int) (studentsOffset + (id - FIRST_STUDENT_ID) * RECORD_SIZE);
+    }
+    private int hash(String courseCode) {
+        int h = courseCode.hashCode();
+        return (h ^ (h >>> 16)) & (indexSlots - 1);
+    }
+    private void putString(int offset, int fieldSize, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, fieldSize - 1);
+        buffer.put(offset, (byte) length);
+        buffer.put(offset + 1, bytes, 0, length);
+    }
+    private String getString(int offset) {
+        byte[] bytes = new byte[buffer.get(offset) & 0xff];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    // Flushes just the bytes a step changed; forcing the whole mapping would write back every dirty page
+    private void sync(int offset, int length) {
+        if (durable) {
+            buffer.force(offset, length);
+        }
+    }
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
 class CourseRegistrationUI {
     private final Scanner scanner;
     private final CourseManager courseManager;
@@ -153,9 +1054,17 @@ class CourseRegistrationUI {
         this.studentManager = studentManager;
     }
     public void run() {
-        System.out.print("Enter your name to register: ");
-        String name = scanner.nextLine();
-        currentStudentId = studentManager.addStudent(name);
+        System.out.print("Enter your Student ID to sign in, or your name to register: ");
+        String input = scanner.nextLine().trim();
+        if (studentManager.hasStudent(input)) {
+            currentStudentId = input;
+            System.out.println("✅ Welcome back! Signed in as " + input);
+        } else {
+            currentStudentId = studentManager.addStudent(input);
+            if (currentStudentId == null) {
+                return;
+            }
+        }
         while (true) {
             System.out.println("\n🔹 Student Course Registration System");
             System.out.println("1️⃣ View Available Courses");
@@ -190,12 +1099,334 @@ class CourseRegistrationUI {
         studentManager.dropCourse(currentStudentId, courseCode);
     }
 }
+// Headless registration-day workload. Students arrive in bursts (waves released together, as when
+// registration opens), each runs a short session of register/drop requests against the StudentManager,
+// and course choice follows a Zipf distribution so a few popular courses fill up and build waitlists.
+// Reports throughput, per-request latency percentiles and the count of every outcome.
+class RegistrationDayLoad {
+    private final CourseDatabase courseDatabase;
+    private final CourseManager courseManager;
+    private final StudentDatabase studentDatabase;
+    private final StudentManager studentManager;
+    private final int courses;
+    private final int students;
+    private final int threads;
+    private int requestsPerStudent = 8;
+    private double zipfExponent = 1.1;
+    private double dropRatio = 0.15;
+    private int waves = 10;
+    private long waveGapMillis = 20;
+    private long seed = 42;
+    RegistrationDayLoad(CourseDatabase courseDatabase, StudentDatabase studentDatabase, int courses, int students, int threads) {
+        this.courseDatabase = courseDatabase;
+        this.courseManager = courseDatabase;
+        this.studentDatabase = studentDatabase;
+        this.studentManager = studentDatabase;
+        this.courses = courses;
+        this.students = students;
+        this.threads = threads;
+    }
+    RegistrationDayLoad requestsPerStudent(int requests) {
+        this.requestsPerStudent = requests;
+        return this;
+    }
+    RegistrationDayLoad zipfExponent(double exponent) {
+        this.zipfExponent = exponent;
+        return this;
+    }
+    RegistrationDayLoad dropRatio(double ratio) {
+        this.dropRatio = ratio;
+        return this;
+    }
+    RegistrationDayLoad waves(int waves, long gapMillis) {
+        this.waves = waves;
+        this.waveGapMillis = gapMillis;
+        return this;
+    }
+    RegistrationDayLoad seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    void run() throws InterruptedException {
+        studentDatabase.setQuiet(true);
+        Random random = new Random(seed);
+        String[] codes = new String[courses];
+        String[] days = {"Mon-Wed", "Tue-Thu", "Mon-Wed-Fri", "Fri", "Sat"};
+        for (int i = 0; i < courses; i++) {
+            codes[i] = String.format("LD%05d", i);
+            String schedule = days[random.nextInt(days.length)] + " " + (8 + random.nextInt(10)) + ":00";
+            courseManager.addCourse(new Course(codes[i], "Load course " + i, 20 + random.nextInt(181), schedule));
+        }
+        String[] studentIds = new String[students];
+        for (int i = 0; i < students; i++) {
+            studentIds[i] = Student.formatId(studentDatabase.onboard("Load student " + i));
+        }
+        double[] popularity = zipfCdf(courses, zipfExponent);
+        int waveSize = (students + waves - 1) / waves;
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger waveEnd = new AtomicInteger();
+        CyclicBarrier barrier = new CyclicBarrier(threads, () -> {
+            // runs once all workers have drained the previous wave: pause, then open the next one at once
+            if (waveEnd.get() > 0) {
+                sleepQuietly(waveGapMillis);
+            }
+            cursor.set(waveEnd.get());
+            waveEnd.set(Math.min(students, waveEnd.get() + waveSize));
+        });
+        Worker[] workers = new Worker[threads];
+        Thread[] pool = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Worker worker = new Worker(codes, studentIds, popularity, seed + t, barrier, cursor, waveEnd);
+            workers[t] = worker;
+            pool[t] = new Thread(worker, "registration-load-" + t);
+            pool[t].start();
+        }
+        for (Thread thread : pool) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        studentDatabase.setQuiet(false);
+        LatencyHistogram registerLatency = new LatencyHistogram();
+        LatencyHistogram dropLatency = new LatencyHistogram();
+        long[] outcomes = new long[RegistrationOutcome.values().length];
+        for (Worker worker : workers) {
+            registerLatency.add(worker.registerLatency);
+            dropLatency.add(worker.dropLatency);
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += worker.outcomes[i];
+            }
+        }
+        long requests = registerLatency.count() + dropLatency.count();
+        System.out.printf("%n🏁 Registration day: %,d students, %,d courses, %d threads, %d waves%n", students, courses, threads, waves);
+        System.out.printf("⚡ %,d requests in %.2f s (%,.0f requests/s, wave gaps included)%n", requests, seconds, requests / seconds);
+        registerLatency.print("register");
+        dropLatency.print("drop");
+        System.out.println("📊 Outcomes:");
+        for (RegistrationOutcome outcome : RegistrationOutcome.values()) {
+            if (outcomes[outcome.ordinal()] > 0) {
+                System.out.printf("   %-15s %,12d%n", outcome, outcomes[outcome.ordinal()]);
+            }
+        }
+        long rejected = outcomes[RegistrationOutcome.CONFLICT.ordinal()] + outcomes[RegistrationOutcome.LIMIT_REACHED.ordinal()]
+                + outcomes[RegistrationOutcome.WAITLIST_FULL.ordinal()] + outcomes[RegistrationOutcome.DUPLICATE.ordinal()];
+        System.out.printf("   rejected %,d, waitlisted %,d%n", rejected, outcomes[RegistrationOutcome.WAITLISTED.ordinal()]);
+        checkInvariants(codes);
+    }
+    // A contention bug shows up as an over-full course or a roster that disagrees with the seat count
+    private void checkInvariants(String[] codes) {
+        int broken = 0;
+        for (String code : codes) {
+            Course course = courseDatabase.getCourse(code);
+            if (course.getEnrolledStudents() > course.getCapacity() || course.getEnrolledStudents() != course.getRoster().size()) {
+                broken++;
+            }
+        }
+        System.out.println(broken == 0 ? "✅ Every course is within capacity and matches its roster."
+                : "❌ " + broken + " courses are over capacity or out of sync with their roster.");
+    }
+    private final class Worker implements Runnable {
+        private final String[] codes;
+        private final String[] studentIds;
+        private final double[] popularity;
+        private final Random random;
+        private final CyclicBarrier barrier;
+        private final AtomicInteger cursor;
+        private final AtomicInteger waveEnd;
+        private final int[] held = new int[RegistrationStore.MAX_REGISTRATIONS];
+        final LatencyHistogram registerLatency = new LatencyHistogram();
+        final LatencyHistogram dropLatency = new LatencyHistogram();
+        final long[] outcomes = new long[RegistrationOutcome.values().length];
+        Worker(String[] codes, String[] studentIds, double[] popularity, long seed,
+               CyclicBarrier barrier, AtomicInteger cursor, AtomicInteger waveEnd) {
+            this.codes = codes;
+            this.studentIds = studentIds;
+            this.popularity = popularity;
+            this.random = new Random(seed);
+            this.barrier = barrier;
+            this.cursor = cursor;
+            this.waveEnd = waveEnd;
+        }
+        @Override
+        public void run() {
+            try {
+                for (int wave = 0; wave < waves; wave++) {
+                    barrier.await();
+                    int end = waveEnd.get();
+                    for (int student = cursor.getAndIncrement(); student < end; student = cursor.getAndIncrement()) {
+                        session(studentIds[student]);
+                    }
+                }
+            } catch (InterruptedException | BrokenBarrierException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        private void session(String studentId) {
+            int holding = 0;
+            for (int i = 0; i < requestsPerStudent; i++) {
+                if (holding > 0 && random.nextDouble() < dropRatio) {
+                    int pick = random.nextInt(holding);
+                    String code = codes[held[pick]];
+                    held[pick] = held[--holding];
+                    long start = System.nanoTime();
+                    RegistrationOutcome outcome = studentManager.dropCourse(studentId, code);
+                    dropLatency.record(System.nanoTime() - start);
+                    outcomes[outcome.ordinal()]++;
+                } else {
+                    int course = sample(popularity, random.nextDouble());
+                    long start = System.nanoTime();
+                    RegistrationOutcome outcome = studentManager.registerCourse(studentId, codes[course]);
+                    registerLatency.record(System.nanoTime() - start);
+                    outcomes[outcome.ordinal()]++;
+                    if (outcome == RegistrationOutcome.REGISTERED) {
+                        held[holding++] = course;
+                    }
+                }
+            }
+        }
+    }
+    // Cumulative probabilities of ranks 1..n under Zipf(s); the course index doubles as its popularity rank
+    static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+    static int sample(double[] cdf, double u) {
+        int index = Arrays.binarySearch(cdf, u);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+// Log-linear latency histogram: eight buckets per power of two, so any percentile is within 12.5%.
+// Single-writer; merge per-thread histograms with add().
+class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+    private final long[] counts = new long[SUB_BUCKETS * 62];
+    private long count;
+    private long max;
+    void record(long nanos) {
+        counts[bucket(Math.max(0, nanos))]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+    long count() {
+        return count;
+    }
+    // Upper bound of the bucket holding the given fraction of samples
+    long percentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(lowerBound(i + 1) - 1, max);
+            }
+        }
+        return max;
+    }
+    void print(String label) {
+        if (count == 0) {
+            return;
+        }
+        System.out.printf("⏱️ %-8s n=%,d  p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n", label, count,
+                micros(percentile(0.50)), micros(percentile(0.90)), micros(percentile(0.99)), micros(percentile(0.999)), micros(max));
+    }
+    private static String micros(long nanos) {
+        return String.format("%.1fµs", nanos / 1000.0);
+    }
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - 2) * SUB_BUCKETS + (int) ((value >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+    }
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 2;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 3);
+    }
+}
 public class task5 {
     public static final CourseDatabase courseDatabase = new CourseDatabase();
     public static final StudentDatabase studentDatabase = new StudentDatabase();
     public static void main(String[] args) {
-        loadSampleData();
-        new CourseRegistrationUI(courseDatabase, studentDatabase).run();
+        if (args.length > 0 && args[0].equals("bench-ids")) {
+            int students = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            benchmarkOnboarding(students, 1);
+            benchmarkOnboarding(students, threads);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("load")) {
+            int students = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            int courses = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+            try {
+                new RegistrationDayLoad(courseDatabase, studentDatabase, courses, students, threads).run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try (RegistrationStore store = RegistrationStore.open(Path.of("registration.db"), 131_072, 2_000_000, true)) {
+            courseDatabase.attachStore(store);
+            studentDatabase.attachStore(store);
+            if (store.getCourseCount() == 0) {
+                loadSampleData();
+            }
+            new CourseRegistrationUI(courseDatabase, studentDatabase).run();
+        } catch (IOException e) {
+            System.out.println("❌ Unable to open the registration store: " + e.getMessage());
+        }
+    }
+    // Onboards the given number of students on a fresh in-memory database and reports throughput
+    private static void benchmarkOnboarding(int students, int threads) {
+        StudentDatabase database = new StudentDatabase();
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int share = students / threads + (t < students % threads ? 1 : 0);
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    database.onboard("Student");
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("🆔 %,d students on %d thread(s): %.0f ms, %,.0f students/s%n",
+                students, threads, seconds * 1000, students / seconds);
     }
     private static void loadSampleData() {
         courseDatabase.addCourse(new Course("UCSH601", "Discrete Mathematics", 2, "Mon-Wed 10:00 AM"));